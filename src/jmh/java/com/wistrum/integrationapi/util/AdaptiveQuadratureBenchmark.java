@@ -0,0 +1,42 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Adaptive Gauss-Kronrod cost is driven by the tolerance rather than the
+// initial interval count; sqrt(x) has an endpoint singularity in its
+// derivative and forces deep refinement.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdaptiveQuadratureBenchmark {
+
+    @Param({"1e-6", "1e-10"})
+    public double tolerance;
+
+    @Param({"10", "1000"})
+    public int intervals;
+
+    @Param({BenchmarkRequests.POLYNOMIAL, BenchmarkRequests.TRIGONOMETRIC, "sqrt(x)"})
+    public String function;
+
+    private IntegrationRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkRequests.request(function, IntegrationMethod.ADAPTIVE_QUADRATURE, intervals, false);
+        request.setAbsoluteTolerance(tolerance);
+        request.setRelativeTolerance(tolerance);
+    }
+
+    @Benchmark
+    public double integrate() {
+        return new AdaptiveQuadrature(request).integrate();
+    }
+}
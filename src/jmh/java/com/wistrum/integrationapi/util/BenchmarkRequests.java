@@ -0,0 +1,32 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+
+// Shared request fixtures for the benchmarks
+final class BenchmarkRequests {
+    // Polynomial, transcendental and rational (with a denominator that has
+    // real roots outside the bounds, so the Symja check does real work)
+    static final String POLYNOMIAL = "x^3 - 2*x + 1";
+    static final String TRIGONOMETRIC = "sin(x)*cos(x) + exp(-x)";
+    static final String RATIONAL = "(x^2 + 1)/(x^2 - 25)";
+
+    static final double LOWER_BOUND = 0.0;
+    static final double UPPER_BOUND = 2.0;
+
+    private BenchmarkRequests() {
+    }
+
+    static IntegrationRequest request(String function, IntegrationMethod method, int intervals, boolean parallel) {
+        IntegrationRequest request = new IntegrationRequest();
+        request.setFunction(function);
+        request.setLowerBound(LOWER_BOUND);
+        request.setUpperBound(UPPER_BOUND);
+        request.setAngularMeasure(AngularMeasure.RADIANS);
+        request.setMethod(method);
+        request.setIntervals(intervals);
+        request.setParallel(parallel);
+        return request;
+    }
+}
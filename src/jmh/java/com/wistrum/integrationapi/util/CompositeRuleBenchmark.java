@@ -0,0 +1,57 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Integrators whose cost grows linearly with the interval (or sample) count.
+// 16 rather than 10 is the smallest count since Romberg needs four levels.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompositeRuleBenchmark {
+
+    @Param({"TRAPEZOIDAL", "SIMPSON", "MIDPOINT", "ROMBERG", "MONTE_CARLO", "QUASI_MONTE_CARLO"})
+    public IntegrationMethod method;
+
+    @Param({"16", "1000", "100000", "1000000"})
+    public int intervals;
+
+    @Param({BenchmarkRequests.POLYNOMIAL, BenchmarkRequests.TRIGONOMETRIC, BenchmarkRequests.RATIONAL})
+    public String function;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private IntegrationRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkRequests.request(function, method, intervals, parallel);
+    }
+
+    @Benchmark
+    public double integrate() {
+        switch (method) {
+            case TRAPEZOIDAL:
+                return new TrapezoidalIntegrator(request).integrate();
+            case SIMPSON:
+                return new SimpsonIntegrator(request).integrate();
+            case MIDPOINT:
+                return new MidpointIntegrator(request).integrate();
+            case ROMBERG:
+                return new RombergIntegrator(request).integrate();
+            case MONTE_CARLO:
+                return new MonteCarloIntegrator(request, false).integrate();
+            case QUASI_MONTE_CARLO:
+                return new MonteCarloIntegrator(request, true).integrate();
+            default:
+                throw new IllegalStateException("Not a composite method: " + method);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.wistrum.integrationapi.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+// Per-expression setup: compiling, the cache lookup every request pays, a
+// single evaluation, and the Symja singularity analysis cold and cached.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ExpressionBenchmark {
+
+    @Param({BenchmarkRequests.POLYNOMIAL, BenchmarkRequests.TRIGONOMETRIC, BenchmarkRequests.RATIONAL})
+    public String function;
+
+    private DoubleUnaryOperator compiled;
+    private double x;
+
+    @Setup
+    public void setUp() {
+        SingularityAnalyzer.warmUp();
+        compiled = FunctionCache.get(function);
+        SingularityAnalyzer.roots(function);
+    }
+
+    @Benchmark
+    public DoubleUnaryOperator compile() {
+        return ExpressionCompiler.compile(function);
+    }
+
+    @Benchmark
+    public DoubleUnaryOperator cachedLookup() {
+        return FunctionCache.get(function);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public double evaluate() {
+        x += 1e-3;
+        return compiled.applyAsDouble(x);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public double[] singularityAnalysis() {
+        return SingularityAnalyzer.analyze(function);
+    }
+
+    @Benchmark
+    public double[] cachedSingularityAnalysis() {
+        return SingularityAnalyzer.roots(function);
+    }
+}
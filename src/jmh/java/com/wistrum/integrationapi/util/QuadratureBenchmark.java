@@ -0,0 +1,56 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Gauss-Legendre and Lobatto rules: evaluation against a cached node table
+// and the one-off cost of building the table. Table setup is quadratic in
+// the order, so orders stop well short of a million nodes.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QuadratureBenchmark {
+
+    @Param({"GAUSS_LEGENDRE_QUADRATURE", "LOBATTO_QUADRATURE"})
+    public IntegrationMethod method;
+
+    @Param({"16", "64", "1024", "8192"})
+    public int order;
+
+    @Param({BenchmarkRequests.POLYNOMIAL, BenchmarkRequests.TRIGONOMETRIC})
+    public String function;
+
+    private IntegrationRequest request;
+
+    @Setup
+    public void setUp() {
+        request = BenchmarkRequests.request(function, method, order, false);
+        nodeTable(); // evaluation is measured against a warm table cache
+    }
+
+    @Benchmark
+    public double integrate() {
+        return method == IntegrationMethod.LOBATTO_QUADRATURE
+                ? new LobattoQuadrature(request).integrate()
+                : new GaussLegendreQuadrature(request).integrate();
+    }
+
+    @Benchmark
+    public QuadratureRule computeNodeTable() {
+        return method == IntegrationMethod.LOBATTO_QUADRATURE
+                ? LobattoQuadrature.computeRule(order)
+                : GaussLegendreQuadrature.computeRule(order);
+    }
+
+    private QuadratureRule nodeTable() {
+        return method == IntegrationMethod.LOBATTO_QUADRATURE
+                ? LobattoQuadrature.rule(order)
+                : GaussLegendreQuadrature.rule(order);
+    }
+}
@@ -0,0 +1,51 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// End to end through NumericalIntegrator: validation (cached compile and
+// singularity check), scheduling, the integration and the timeout wrapper.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestPathBenchmark {
+
+    @Param({"TRAPEZOIDAL", "SIMPSON", "GAUSS_LEGENDRE_QUADRATURE", "ADAPTIVE_QUADRATURE"})
+    public IntegrationMethod method;
+
+    @Param({"16", "1000", "100000"})
+    public int intervals;
+
+    @Param({BenchmarkRequests.POLYNOMIAL, BenchmarkRequests.RATIONAL})
+    public String function;
+
+    private IntegrationScheduler scheduler;
+    private NumericalIntegrator integrator;
+    private IntegrationRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        SingularityAnalyzer.warmUp();
+        scheduler = new IntegrationScheduler(Runtime.getRuntime().availableProcessors(),
+                IntegrationScheduler.DEFAULT_QUEUE_CAPACITY);
+        integrator = new NumericalIntegrator(scheduler);
+        request = BenchmarkRequests.request(function, method, intervals, false);
+        integrator.integrate(request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Benchmark
+    public double integrate() throws Exception {
+        return integrator.integrate(request);
+    }
+}
@@ -0,0 +1,63 @@
+package com.wistrum.integrationapi.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+// Writes double[] results as application/x-float64: the ASCII magic "F64L",
+// the element count as a little-endian int32, then the values as
+// little-endian IEEE 754 doubles. The 8-byte header keeps the values
+// aligned, so clients can map the body straight onto a float64 array.
+public class Float64ArrayHttpMessageConverter extends AbstractHttpMessageConverter<double[]> {
+	public static final MediaType APPLICATION_FLOAT64 = MediaType.valueOf("application/x-float64");
+	private static final byte[] MAGIC = {'F', '6', '4', 'L'};
+	private static final int HEADER_BYTES = 8;
+	private static final int BUFFER_BYTES = 8192;
+
+	public Float64ArrayHttpMessageConverter() {
+		super(APPLICATION_FLOAT64);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return double[].class == clazz;
+	}
+
+	@Override
+	protected boolean canRead(MediaType mediaType) {
+		return false;
+	}
+
+	@Override
+	protected double[] readInternal(Class<? extends double[]> clazz, HttpInputMessage inputMessage) {
+		throw new HttpMessageNotReadableException("application/x-float64 is a response format only.", inputMessage);
+	}
+
+	@Override
+	protected Long getContentLength(double[] values, MediaType contentType) {
+		return HEADER_BYTES + 8L * values.length;
+	}
+
+	@Override
+	protected void writeInternal(double[] values, HttpOutputMessage outputMessage) throws IOException {
+		OutputStream body = outputMessage.getBody();
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.put(MAGIC).putInt(values.length);
+		for (double value : values) {
+			if (!buffer.hasRemaining()) {
+				body.write(buffer.array(), 0, buffer.position());
+				buffer.clear();
+			}
+			buffer.putDouble(value);
+		}
+		body.write(buffer.array(), 0, buffer.position());
+		body.flush();
+	}
+}
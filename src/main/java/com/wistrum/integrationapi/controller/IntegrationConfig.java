@@ -0,0 +1,72 @@
+package com.wistrum.integrationapi.controller;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.wistrum.integrationapi.util.AdmissionController;
+import com.wistrum.integrationapi.util.GaussLegendreQuadrature;
+import com.wistrum.integrationapi.util.IntegrationScheduler;
+import com.wistrum.integrationapi.util.NumericalIntegrator;
+import com.wistrum.integrationapi.util.RateLimiter;
+import com.wistrum.integrationapi.util.SingularityAnalyzer;
+
+@Configuration
+public class IntegrationConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public IntegrationScheduler integrationScheduler(
+            @Value("${integration.scheduler.pool-size:0}") int poolSize,
+            @Value("${integration.scheduler.queue-capacity:64}") int queueCapacity) {
+        // A pool size of 0 means one worker per available processor
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return new IntegrationScheduler(threads, queueCapacity);
+    }
+
+    @Bean
+    public AdmissionController admissionController(
+            @Value("${integration.admission.target-utilization:0.8}") double targetUtilization,
+            @Value("${integration.admission.horizon:2s}") Duration horizon,
+            @Value("${integration.admission.max-wait:5s}") Duration maxWait) {
+        return new AdmissionController(targetUtilization, horizon, maxWait);
+    }
+
+    @Bean
+    public NumericalIntegrator numericalIntegrator(IntegrationScheduler integrationScheduler,
+            AdmissionController admissionController) {
+        return new NumericalIntegrator(integrationScheduler, admissionController);
+    }
+
+    @Bean
+    public RateLimiter rateLimiter(
+            @Value("${integration.rate-limit.capacity:50}") long capacity,
+            @Value("${integration.rate-limit.refill-period:1m}") Duration refillPeriod,
+            @Value("${integration.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${integration.rate-limit.idle-expiry:10m}") Duration idleExpiry,
+            Environment environment) {
+        // integration.rate-limit.api-keys.<key>=<tokens per refill period>
+        Map<String, Long> apiKeys = Binder.get(environment)
+                .bind("integration.rate-limit.api-keys", Bindable.mapOf(String.class, Long.class))
+                .orElse(Map.of());
+        RateLimiter rateLimiter = new RateLimiter(capacity, refillPeriod, maxClients, idleExpiry, apiKeys);
+        rateLimiter.monitor();
+        return rateLimiter;
+    }
+
+    @Bean
+    public ApplicationRunner integrationWarmUp() {
+        // Runs in the background so startup is not held up by Symja initialization
+        return args -> CompletableFuture.runAsync(() -> {
+            GaussLegendreQuadrature.preload();
+            SingularityAnalyzer.warmUp();
+        });
+    }
+}
@@ -3,48 +3,151 @@ package com.wistrum.integrationapi.controller;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.time.Duration;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.wistrum.integrationapi.model.BatchItemResult;
+import com.wistrum.integrationapi.model.BulkIntegrationRequest;
 import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import com.wistrum.integrationapi.model.MultipleIntegrationRequest;
+import com.wistrum.integrationapi.util.IntegrationCost;
+import com.wistrum.integrationapi.util.IntegrationMetrics;
 import com.wistrum.integrationapi.util.NumericalIntegrator;
+import com.wistrum.integrationapi.util.RateLimiter;
 
-import io.github.bucket4j.*;
+import jakarta.servlet.http.HttpServletRequest;
 
 
 @RestController
 @RequestMapping("/api/integrate")
 public class IntegrationController {
-	private NumericalIntegrator numericalIntegrator = new NumericalIntegrator();
-	private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+	// Outlives the integration time limit so the timeout event still arrives
+	private static final long STREAM_TIMEOUT_MS = NumericalIntegrator.TIME_LIMIT_MS + 5_000;
+	private final NumericalIntegrator numericalIntegrator;
+	private final RateLimiter rateLimiter;
 	
-	private Bucket getBucket(String ip) {
-		return buckets.computeIfAbsent(ip, k -> 
-        	Bucket4j.builder()
-        			.addLimit(Bandwidth.classic(5, Refill.greedy(5, Duration.ofMinutes(1)))) 
-        			.build()
-					);
+	public IntegrationController(NumericalIntegrator numericalIntegrator, RateLimiter rateLimiter) {
+		this.numericalIntegrator = numericalIntegrator;
+		this.rateLimiter = rateLimiter;
 	}
 	
+	// Charged by estimated work rather than per call. Work beyond the
+	// client's whole allowance could never be served, so it gets 413.
+	// Clients are keyed by the connection address; behind a trusted proxy,
+	// server.forward-headers-strategy resolves it from X-Forwarded-For.
+	private void charge(long tokens, String apiKey, HttpServletRequest servletRequest,
+			String tooLargeMessage) {
+		if (tokens > rateLimiter.capacity(apiKey)) {
+			IntegrationMetrics.rejected("too_large");
+			throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, tooLargeMessage);
+		}
+		if(!rateLimiter.tryConsume(apiKey, servletRequest.getRemoteAddr(), tokens)) {
+			IntegrationMetrics.rejected("rate_limit");
+			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, 
+					"Too Many Requests - Please wait before retrying.");
+		}
+	}
+	
+	// The bare result by default; ?detailed=true adds the error estimate,
+	// evaluation count and, for AUTO, the method used
 	@PostMapping
 	public ResponseEntity <?> integrate
 	(@RequestBody IntegrationRequest request, 
-			@RequestHeader(value = "X-Forwarded-For", required = false) String ip) throws Exception{
-		 if (ip == null || ip.isEmpty()) {
-	            ip = "unknown"; //fallback for testing
-	        }
-
-		Bucket bucket = getBucket(ip);
-		
-		if(!bucket.tryConsume(1)) {
-			throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, 
-					"Too Many Requests - Please wait before retrying.");
+			@RequestParam(value = "detailed", defaultValue = "false") boolean detailed,
+			@RequestHeader(value = "X-API-Key", required = false) String apiKey,
+			HttpServletRequest servletRequest) throws Exception{
+		charge(IntegrationCost.tokens(request), apiKey, servletRequest,
+				"Request exceeds the per-minute work allowance - Please use fewer intervals.");
+		IntegrationResult result = numericalIntegrator.integrateDetailed(request);
+		if (detailed) {
+			return ResponseEntity.ok(result);
 		}
-		double result = numericalIntegrator.integrate(request);
+		return ResponseEntity.ok(result.getResult());
+	}
+	
+	@PostMapping("/batch")
+	public ResponseEntity <?> integrateBatch
+	(@RequestBody List<IntegrationRequest> requests, 
+			@RequestHeader(value = "X-API-Key", required = false) String apiKey,
+			HttpServletRequest servletRequest) {
+		// Charged by estimated work, so one batch of small integrals costs
+		// about as much as a single large request
+		long tokens = IntegrationCost.tokens(requests == null ? List.of() : requests);
+		charge(tokens, apiKey, servletRequest,
+				"Batch exceeds the per-minute work allowance - Please split it.");
+		List<BatchItemResult> results = numericalIntegrator.integrateBatch(requests);
+		return ResponseEntity.ok(results);
+	}
+
+	@PostMapping("/multiple")
+	public ResponseEntity <?> integrateMultiple
+	(@RequestBody MultipleIntegrationRequest request, 
+			@RequestHeader(value = "X-API-Key", required = false) String apiKey,
+			HttpServletRequest servletRequest) throws Exception {
+		// Charged by grid size like batches
+		long tokens = IntegrationCost.tokens(request);
+		charge(tokens, apiKey, servletRequest,
+				"Grid exceeds the per-minute work allowance - Please use fewer points.");
+		IntegrationResult result = numericalIntegrator.integrateMultiple(request);
 		return ResponseEntity.ok(result);
 	}
+	
+	@PostMapping("/bulk")
+	public ResponseEntity <?> integrateBulk
+	(@RequestBody BulkIntegrationRequest request, 
+			@RequestHeader(value = "X-API-Key", required = false) String apiKey,
+			HttpServletRequest servletRequest) throws Exception {
+		// Charged by the shared sample points, not per window
+		long tokens = IntegrationCost.tokens(request);
+		charge(tokens, apiKey, servletRequest,
+				"Request exceeds the per-minute work allowance - Please use fewer intervals.");
+		double[] results = numericalIntegrator.integrateBulk(request);
+		return ResponseEntity.ok(results);
+	}
+	
+	// Server-Sent Events: an "estimate" event per refinement level, then a
+	// single "result" or "error" event. Closing the connection cancels the
+	// remaining work.
+	@PostMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter integrateStream
+	(@RequestBody IntegrationRequest request, 
+			@RequestHeader(value = "X-API-Key", required = false) String apiKey,
+			HttpServletRequest servletRequest) {
+		charge(IntegrationCost.tokens(request), apiKey, servletRequest,
+				"Request exceeds the per-minute work allowance - Please use fewer intervals.");
+		SseEmitter emitter = new SseEmitter(STREAM_TIMEOUT_MS);
+		CompletableFuture<IntegrationResult> integration = numericalIntegrator.integrateProgressively(request,
+				progress -> {
+					try {
+						emitter.send(SseEmitter.event().name("estimate").data(progress));
+					} catch (IOException | IllegalStateException e) {
+						throw new CancellationException("Client disconnected");
+					}
+				});
+		integration.whenComplete((result, e) -> {
+			try {
+				if (e == null) {
+					emitter.send(SseEmitter.event().name("result").data(result));
+				} else {
+					emitter.send(SseEmitter.event().name("error").data(BatchItemResult.failure(e)));
+				}
+				emitter.complete();
+			} catch (IOException | IllegalStateException ignored) {
+				// The client has already gone
+			}
+		});
+		Runnable cancel = () -> integration.cancel(true);
+		emitter.onCompletion(cancel);
+		emitter.onTimeout(cancel);
+		emitter.onError(e -> cancel.run());
+		return emitter;
+	}
 }
@@ -0,0 +1,17 @@
+package com.wistrum.integrationapi.controller;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MessageConverterConfig implements WebMvcConfigurer {
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		// Added last so JSON stays the default; binary only when asked for
+		converters.add(new Float64ArrayHttpMessageConverter());
+	}
+}
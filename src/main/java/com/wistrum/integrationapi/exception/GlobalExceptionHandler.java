@@ -2,6 +2,7 @@ package com.wistrum.integrationapi.exception;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.ExecutionException;
 
@@ -11,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
@@ -53,6 +55,17 @@ public class GlobalExceptionHandler {
                 .body(errorMap);
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> handleRejectedExecutionException(RejectedExecutionException e) {
+        Logger.warn("Integration rejected: {}", e.getMessage());
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("error", "Service Unavailable");
+        errorMap.put("message", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorMap);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException e) {
         Logger.error("Illegal argument", e);
@@ -75,6 +88,19 @@ public class GlobalExceptionHandler {
                 .body(errorMap);
     }
 
+    // e.g. Accept: application/x-float64 on an endpoint that does not return a double[]
+    @ExceptionHandler(HttpMediaTypeNotAcceptableException.class)
+    public ResponseEntity<Map<String, String>> handleHttpMediaTypeNotAcceptableException(
+            HttpMediaTypeNotAcceptableException e) {
+        Logger.warn("Not acceptable: {}", e.getMessage());
+        Map<String, String> errorMap = new HashMap<>();
+        errorMap.put("error", "Not Acceptable");
+        errorMap.put("message", "Acceptable representations: " + e.getSupportedMediaTypes());
+        return ResponseEntity.status(HttpStatus.NOT_ACCEPTABLE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(errorMap);
+    }
+
     @ExceptionHandler(ResponseStatusException.class)
     public ResponseEntity<Map<String, String>> handleResponseStatusException(ResponseStatusException e) {
         Logger.error("Request error", e);
@@ -0,0 +1,54 @@
+package com.wistrum.integrationapi.model;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+	private final Double result;
+	private final Double errorEstimate;
+	private final Long evaluations;
+	private final String error;
+	private final String message;
+
+	private BatchItemResult(Double result, Double errorEstimate, Long evaluations,
+			String error, String message) {
+		this.result = result;
+		this.errorEstimate = errorEstimate;
+		this.evaluations = evaluations;
+		this.error = error;
+		this.message = message;
+	}
+
+	public static BatchItemResult success(IntegrationResult result) {
+		return new BatchItemResult(result.getResult(), result.getErrorEstimate(),
+				result.getEvaluations(), null, null);
+	}
+
+	// Error labels match the ones GlobalExceptionHandler uses for single requests
+	public static BatchItemResult failure(Throwable e) {
+		String error;
+		if (e instanceof IllegalArgumentException) {
+			error = "Invalid Argument";
+		} else if (e instanceof ArithmeticException) {
+			error = "Arithmetic Exception";
+		} else if (e instanceof TimeoutException) {
+			error = "Timeout";
+		} else if (e instanceof RejectedExecutionException) {
+			error = "Service Unavailable";
+		} else if (e instanceof RuntimeException) {
+			error = "Runtime Exception";
+		} else {
+			error = "Internal Server Error";
+		}
+		return new BatchItemResult(null, null, null, error, e.getMessage());
+	}
+
+	public Double getResult() { return result; }
+	public Double getErrorEstimate() { return errorEstimate; }
+	public Long getEvaluations() { return evaluations; }
+	public String getError() { return error; }
+	public String getMessage() { return message; }
+}
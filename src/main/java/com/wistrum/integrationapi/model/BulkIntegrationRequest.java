@@ -0,0 +1,76 @@
+package com.wistrum.integrationapi.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+// One function integrated over many windows. Either lowerBounds/upperBounds
+// give the windows pairwise, or grid gives sorted points and the result is
+// the running integral from grid[0] to each of them. intervals is the
+// resolution over the whole span covered by the windows.
+public class BulkIntegrationRequest {
+	@NotBlank
+	private String function;
+	private double[] lowerBounds;
+	private double[] upperBounds;
+	private double[] grid;
+	@Enumerated(EnumType.STRING)
+	@NotNull
+	private AngularMeasure angularMeasure;
+	@Enumerated(EnumType.STRING)
+	private IntegrationMethod integrationMethod;
+	private int intervals;
+	private boolean parallel;
+	
+	public void setFunction(String function) { this.function = function; }
+	public String getFunction() { return function; }
+	
+	public void setLowerBounds(double[] lowerBounds) {
+		this.lowerBounds = lowerBounds;
+	}
+	public double[] getLowerBounds() {
+		return toRadians(lowerBounds);
+	}
+	
+	public void setUpperBounds(double[] upperBounds) {
+		this.upperBounds = upperBounds;
+	}
+	public double[] getUpperBounds() {
+		return toRadians(upperBounds);
+	}
+	
+	public void setGrid(double[] grid) { this.grid = grid; }
+	public double[] getGrid() {
+		return toRadians(grid);
+	}
+	
+	public void setAngularMeasure(AngularMeasure angularMeasure) { 
+		this.angularMeasure = angularMeasure;}
+	public AngularMeasure getAngularMeasure () {
+		return angularMeasure;
+	}
+	
+	public void setIntegrationMethod(IntegrationMethod integrationMethod) {
+		this.integrationMethod = integrationMethod;}
+	public IntegrationMethod getIntegrationMethod() { return integrationMethod; }
+	
+	public void setIntervals(int intervals) {this.intervals = intervals;}
+	public int getIntervals() { return intervals; }
+	
+	public void setParallel(boolean parallel) { this.parallel = parallel; }
+	public boolean isParallel() { return parallel; }
+	
+	public boolean isCumulative() {
+		return grid != null;
+	}
+	
+	private double[] toRadians(double[] bounds) {
+		if (bounds == null) return null;
+		double[] radians = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i++) {
+			radians[i] = angularMeasure.toRadians(bounds[i]);
+		}
+		return radians;
+	}
+}
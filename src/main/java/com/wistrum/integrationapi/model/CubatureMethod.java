@@ -0,0 +1,8 @@
+package com.wistrum.integrationapi.model;
+
+public enum CubatureMethod {
+	TENSOR_GAUSS_LEGENDRE,
+	SPARSE_GRID,
+	MONTE_CARLO,
+	QUASI_MONTE_CARLO
+}
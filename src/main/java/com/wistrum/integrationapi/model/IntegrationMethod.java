@@ -5,8 +5,13 @@ public enum IntegrationMethod {
 	SIMPSON,
 	MIDPOINT,
 	GAUSS_LEGENDRE_QUADRATURE,
-	//ROMBERG,
+	ROMBERG,
 	LOBATTO_QUADRATURE,
-	//ADAPTIVE_QUADRATURE,
-	//MONTE_CARLO
+	ADAPTIVE_QUADRATURE,
+	MONTE_CARLO,
+	QUASI_MONTE_CARLO,
+	DOUBLE_EXPONENTIAL,
+	GAUSS_LAGUERRE_QUADRATURE,
+	GAUSS_HERMITE_QUADRATURE,
+	AUTO
 }
@@ -0,0 +1,25 @@
+package com.wistrum.integrationapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One intermediate estimate of a progressively refined integral. Evaluations
+// are cumulative over all levels reported so far.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntegrationProgress {
+	private final int level;
+	private final double result;
+	private final Double errorEstimate;
+	private final long evaluations;
+
+	public IntegrationProgress(int level, double result, Double errorEstimate, long evaluations) {
+		this.level = level;
+		this.result = result;
+		this.errorEstimate = errorEstimate;
+		this.evaluations = evaluations;
+	}
+
+	public int getLevel() { return level; }
+	public double getResult() { return result; }
+	public Double getErrorEstimate() { return errorEstimate; }
+	public long getEvaluations() { return evaluations; }
+}
@@ -16,6 +16,12 @@ public class IntegrationRequest {
 	@Enumerated(EnumType.STRING)
 	private IntegrationMethod integrationMethod;
 	private int intervals;
+	private boolean parallel;
+	private Double absoluteTolerance;
+	private Double relativeTolerance;
+	private Integer maxEvaluations;
+	private Long seed;
+	private Long timeBudgetMs;
 	
 	public void setFunction(String function) { this.function = function; }
 	public String getFunction() { return function; }
@@ -46,4 +52,47 @@ public class IntegrationRequest {
 	
 	public void setIntervals(int intervals) {this.intervals = intervals;}
 	public int getIntervals() { return intervals; }
+	
+	public void setParallel(boolean parallel) { this.parallel = parallel; }
+	public boolean isParallel() { return parallel; }
+	
+	public void setAbsoluteTolerance(Double absoluteTolerance) {
+		this.absoluteTolerance = absoluteTolerance;
+	}
+	public Double getAbsoluteTolerance() { return absoluteTolerance; }
+	
+	public void setRelativeTolerance(Double relativeTolerance) {
+		this.relativeTolerance = relativeTolerance;
+	}
+	public Double getRelativeTolerance() { return relativeTolerance; }
+	
+	public void setMaxEvaluations(Integer maxEvaluations) {
+		this.maxEvaluations = maxEvaluations;
+	}
+	public Integer getMaxEvaluations() { return maxEvaluations; }
+	
+	public void setSeed(Long seed) { this.seed = seed; }
+	public Long getSeed() { return seed; }
+	
+	public void setTimeBudgetMs(Long timeBudgetMs) { this.timeBudgetMs = timeBudgetMs; }
+	public Long getTimeBudgetMs() { return timeBudgetMs; }
+
+	// Copy of this request at a different resolution, used when refining
+	// an integral level by level
+	public IntegrationRequest withIntervals(int intervals) {
+		IntegrationRequest copy = new IntegrationRequest();
+		copy.function = function;
+		copy.lowerBound = lowerBound;
+		copy.upperBound = upperBound;
+		copy.angularMeasure = angularMeasure;
+		copy.integrationMethod = integrationMethod;
+		copy.intervals = intervals;
+		copy.parallel = parallel;
+		copy.absoluteTolerance = absoluteTolerance;
+		copy.relativeTolerance = relativeTolerance;
+		copy.maxEvaluations = maxEvaluations;
+		copy.seed = seed;
+		copy.timeBudgetMs = timeBudgetMs;
+		return copy;
+	}
 }
@@ -0,0 +1,32 @@
+package com.wistrum.integrationapi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IntegrationResult {
+	private final double result;
+	private final Double errorEstimate;
+	private final Long evaluations;
+	// The method AUTO chose; null otherwise
+	private final IntegrationMethod method;
+
+	public IntegrationResult(double result) {
+		this(result, null, null);
+	}
+
+	public IntegrationResult(double result, Double errorEstimate, Long evaluations) {
+		this(result, errorEstimate, evaluations, null);
+	}
+
+	public IntegrationResult(double result, Double errorEstimate, Long evaluations, IntegrationMethod method) {
+		this.result = result;
+		this.errorEstimate = errorEstimate;
+		this.evaluations = evaluations;
+		this.method = method;
+	}
+
+	public double getResult() { return result; }
+	public Double getErrorEstimate() { return errorEstimate; }
+	public Long getEvaluations() { return evaluations; }
+	public IntegrationMethod getMethod() { return method; }
+}
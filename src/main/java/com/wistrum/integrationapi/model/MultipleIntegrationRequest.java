@@ -0,0 +1,81 @@
+package com.wistrum.integrationapi.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+// Double or triple integral of a function of x, y (and z) over a box. The
+// bounds arrays hold one entry per axis, in x, y, z order.
+public class MultipleIntegrationRequest {
+	@NotBlank
+	private String function;
+	@NotNull
+	private double[] lowerBounds;
+	@NotNull
+	private double[] upperBounds;
+	@Enumerated(EnumType.STRING)
+	@NotNull
+	private AngularMeasure angularMeasure;
+	@Enumerated(EnumType.STRING)
+	private CubatureMethod method;
+	private int intervals;
+	private int level;
+	private Long seed;
+	private boolean parallel;
+	
+	public void setFunction(String function) { this.function = function; }
+	public String getFunction() { return function; }
+	
+	public void setLowerBounds(double[] lowerBounds) {
+		this.lowerBounds = lowerBounds;
+	}
+	public double[] getLowerBounds() {
+		return toRadians(lowerBounds);
+	}
+	
+	public void setUpperBounds(double[] upperBounds) {
+		this.upperBounds = upperBounds;
+	}
+	public double[] getUpperBounds() {
+		return toRadians(upperBounds);
+	}
+	
+	public void setAngularMeasure(AngularMeasure angularMeasure) { 
+		this.angularMeasure = angularMeasure;}
+	public AngularMeasure getAngularMeasure () {
+		return angularMeasure;
+	}
+	
+	public void setMethod(CubatureMethod method) { this.method = method; }
+	public CubatureMethod getMethod() { return method; }
+	
+	// Gauss-Legendre nodes per axis for TENSOR_GAUSS_LEGENDRE; the sample
+	// count for MONTE_CARLO and QUASI_MONTE_CARLO
+	public void setIntervals(int intervals) { this.intervals = intervals; }
+	public int getIntervals() { return intervals; }
+	
+	// Smolyak level for SPARSE_GRID; level 0 is the one-point rule
+	public void setLevel(int level) { this.level = level; }
+	public int getLevel() { return level; }
+	
+	// Random seed for MONTE_CARLO and QUASI_MONTE_CARLO
+	public void setSeed(Long seed) { this.seed = seed; }
+	public Long getSeed() { return seed; }
+	
+	public void setParallel(boolean parallel) { this.parallel = parallel; }
+	public boolean isParallel() { return parallel; }
+	
+	public int getDimensions() {
+		return lowerBounds == null ? 0 : lowerBounds.length;
+	}
+	
+	private double[] toRadians(double[] bounds) {
+		if (bounds == null) return null;
+		double[] radians = new double[bounds.length];
+		for (int i = 0; i < bounds.length; i++) {
+			radians[i] = angularMeasure.toRadians(bounds[i]);
+		}
+		return radians;
+	}
+}
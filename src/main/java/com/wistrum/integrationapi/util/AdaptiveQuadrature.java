@@ -0,0 +1,222 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationProgress;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import java.util.PriorityQueue;
+import java.util.function.DoubleUnaryOperator;
+
+// Globally adaptive Gauss-Kronrod (G7-K15) quadrature. Subintervals are kept
+// in a priority queue by error estimate and the worst one is bisected until
+// the requested tolerance is met or the evaluation budget runs out.
+public class AdaptiveQuadrature {
+    static final double DEFAULT_ABSOLUTE_TOLERANCE = 1.49e-8;
+    static final double DEFAULT_RELATIVE_TOLERANCE = 1.49e-8;
+    static final int DEFAULT_MAX_EVALUATIONS = 1_000_000;
+    private static final int MAX_EVALUATIONS = 10_000_000;
+    private static final int POINTS_PER_RULE = 15;
+    private static final double MAX_FUNCTION_VALUE = 1e150;
+    private static final double MACHINE_EPSILON = Math.ulp(1.0);
+
+    // Kronrod abscissae; the odd-indexed ones and the centre are the Gauss nodes
+    private static final double[] XGK = {
+        0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+        0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+        0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+        0.207784955007898467600689403773245, 0.000000000000000000000000000000000
+    };
+    private static final double[] WGK = {
+        0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+        0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+        0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+        0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+    private static final double[] WG = {
+        0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+        0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    private final DoubleUnaryOperator f;
+    private final double lowerBound;
+    private final double upperBound;
+    private final int intervals;
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+    private final int maxEvaluations;
+
+    private double errorEstimate;
+    private long evaluations;
+
+    public AdaptiveQuadrature(IntegrationRequest request) {
+        this.f = FunctionCache.get(request.getFunction());
+        this.lowerBound = request.getLowerBound();
+        this.upperBound = request.getUpperBound();
+        this.intervals = request.getIntervals();
+        this.absoluteTolerance = request.getAbsoluteTolerance() != null
+                ? request.getAbsoluteTolerance() : DEFAULT_ABSOLUTE_TOLERANCE;
+        this.relativeTolerance = request.getRelativeTolerance() != null
+                ? request.getRelativeTolerance() : DEFAULT_RELATIVE_TOLERANCE;
+        this.maxEvaluations = request.getMaxEvaluations() != null
+                ? request.getMaxEvaluations() : DEFAULT_MAX_EVALUATIONS;
+    }
+
+    public double integrate() {
+        return integrate(null);
+    }
+
+    // Reports the running estimate after the initial pass and whenever the
+    // number of bisections reaches a power of two
+    public double integrate(RefinementListener listener) {
+        validateInputs();
+
+        PriorityQueue<Segment> queue = new PriorityQueue<>(
+                (s1, s2) -> Double.compare(s2.error, s1.error));
+        double width = (upperBound - lowerBound) / intervals;
+        double total = 0.0;
+        double totalError = 0.0;
+        for (int i = 0; i < intervals; i++) {
+            double a = lowerBound + i * width;
+            double b = i == intervals - 1 ? upperBound : a + width;
+            Segment segment = kronrod(a, b);
+            queue.add(segment);
+            total += segment.integral;
+            totalError += segment.error;
+        }
+        int level = 0;
+        if (listener != null) {
+            listener.onEstimate(new IntegrationProgress(level, total, totalError, evaluations));
+        }
+
+        int bisections = 0;
+        while (totalError > Math.max(absoluteTolerance, relativeTolerance * Math.abs(total))
+                && evaluations + 2 * POINTS_PER_RULE <= maxEvaluations) {
+            Cancellation.check();
+            Segment worst = queue.peek();
+            double mid = 0.5 * (worst.a + worst.b);
+            if (mid <= worst.a || mid >= worst.b) {
+                break; // cannot be subdivided any further in double precision
+            }
+            queue.poll();
+            Segment left = kronrod(worst.a, mid);
+            Segment right = kronrod(mid, worst.b);
+            queue.add(left);
+            queue.add(right);
+            total += left.integral + right.integral - worst.integral;
+            totalError += left.error + right.error - worst.error;
+            if (listener != null && Integer.bitCount(++bisections) == 1) {
+                listener.onEstimate(new IntegrationProgress(++level, total, totalError, evaluations));
+            }
+        }
+
+        // Re-sum to drop the rounding drift of the running totals
+        total = 0.0;
+        totalError = 0.0;
+        for (Segment segment : queue) {
+            total += segment.integral;
+            totalError += segment.error;
+        }
+        errorEstimate = totalError;
+        return total;
+    }
+
+    public double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    // Shared by every integrator that takes tolerances. NaN or infinite
+    // tolerances can never be met and would run the whole budget.
+    static void checkTolerances(double absoluteTolerance, double relativeTolerance) {
+        if (!Double.isFinite(absoluteTolerance) || !Double.isFinite(relativeTolerance)
+                || absoluteTolerance < 0 || relativeTolerance < 0
+                || (absoluteTolerance == 0 && relativeTolerance == 0)) {
+            throw new IllegalArgumentException("Tolerances must be finite, non-negative and not both zero");
+        }
+    }
+
+    private void validateInputs() {
+        if (Double.isNaN(lowerBound) || Double.isNaN(upperBound)) {
+            throw new IllegalArgumentException("Integration bounds cannot be NaN");
+        }
+        if (lowerBound >= upperBound) {
+            throw new IllegalArgumentException("Lower bound must be less than upper bound");
+        }
+        checkTolerances(absoluteTolerance, relativeTolerance);
+        if (maxEvaluations > MAX_EVALUATIONS) {
+            throw new IllegalArgumentException("Maximum " + MAX_EVALUATIONS + " evaluations allowed");
+        }
+        if ((long) intervals * POINTS_PER_RULE > maxEvaluations) {
+            throw new IllegalArgumentException(
+                    "Evaluation budget is too small for " + intervals + " initial intervals");
+        }
+    }
+
+    // 15-point Kronrod estimate with the QUADPACK (qk15) error heuristic
+    private Segment kronrod(double a, double b) {
+        double center = 0.5 * (a + b);
+        double halfLength = 0.5 * (b - a);
+        double fc = evaluateFunctionSafely(center);
+        double resultGauss = fc * WG[3];
+        double resultKronrod = fc * WGK[7];
+        double resultAbs = Math.abs(resultKronrod);
+        double[] fv1 = new double[7];
+        double[] fv2 = new double[7];
+
+        for (int j = 0; j < 7; j++) {
+            double dx = halfLength * XGK[j];
+            double f1 = evaluateFunctionSafely(center - dx);
+            double f2 = evaluateFunctionSafely(center + dx);
+            fv1[j] = f1;
+            fv2[j] = f2;
+            resultKronrod += WGK[j] * (f1 + f2);
+            resultAbs += WGK[j] * (Math.abs(f1) + Math.abs(f2));
+            if (j % 2 == 1) {
+                resultGauss += WG[j / 2] * (f1 + f2);
+            }
+        }
+
+        double mean = resultKronrod * 0.5;
+        double resultAsc = WGK[7] * Math.abs(fc - mean);
+        for (int j = 0; j < 7; j++) {
+            resultAsc += WGK[j] * (Math.abs(fv1[j] - mean) + Math.abs(fv2[j] - mean));
+        }
+
+        double integral = resultKronrod * halfLength;
+        resultAbs *= Math.abs(halfLength);
+        resultAsc *= Math.abs(halfLength);
+        double error = Math.abs((resultKronrod - resultGauss) * halfLength);
+        if (resultAsc != 0 && error != 0) {
+            error = resultAsc * Math.min(1, Math.pow(200 * error / resultAsc, 1.5));
+        }
+        if (resultAbs > Double.MIN_NORMAL / (50 * MACHINE_EPSILON)) {
+            error = Math.max(50 * MACHINE_EPSILON * resultAbs, error);
+        }
+        return new Segment(a, b, integral, error);
+    }
+
+    private double evaluateFunctionSafely(double x) {
+        evaluations++;
+        double result = f.applyAsDouble(x);
+        if (Double.isNaN(result) || Double.isInfinite(result)
+                || Math.abs(result) > MAX_FUNCTION_VALUE) {
+            throw new ArithmeticException("Function may be discontinuous near x = " + x);
+        }
+        return result;
+    }
+
+    private static final class Segment {
+        final double a;
+        final double b;
+        final double integral;
+        final double error;
+
+        Segment(double a, double b, double integral, double error) {
+            this.a = a;
+            this.b = b;
+            this.integral = integral;
+            this.error = error;
+        }
+    }
+}
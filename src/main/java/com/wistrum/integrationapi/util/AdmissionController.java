@@ -0,0 +1,121 @@
+package com.wistrum.integrationapi.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Global admission for integration work, aiming to keep the process under a
+// target CPU utilization during bursts. Each request is admitted with its
+// predicted CPU time (CostModel), and the admitted-but-unfinished total may
+// not exceed what the cores can clear within the horizon at the target
+// utilization. While the measured process CPU load is above the target,
+// nothing new is admitted either. Requests that do not fit wait up to
+// maxWait and are then rejected (503).
+//
+// An idle server always admits, so a request larger than the whole
+// allowance can still run on its own. Waiting uses a ReentrantLock rather
+// than a monitor, so waiting virtual request threads do not pin carriers.
+public class AdmissionController {
+    private static final double DEFAULT_TARGET_UTILIZATION = 0.8;
+    private static final Duration DEFAULT_HORIZON = Duration.ofSeconds(2);
+    private static final Duration DEFAULT_MAX_WAIT = Duration.ofSeconds(5);
+    // How often the process CPU load is sampled (it is averaged since the
+    // previous sample)
+    private static final long SAMPLE_INTERVAL_NS = TimeUnit.MILLISECONDS.toNanos(250);
+
+    private final double targetUtilization;
+    private final long capacityNanos;
+    private final long maxWaitNanos;
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+
+    private long admittedNanos;
+    private long lastSampleNanos;
+    private double cpuLoad;
+
+    public AdmissionController(double targetUtilization, Duration horizon, Duration maxWait) {
+        if (!(targetUtilization > 0 && targetUtilization <= 1)) {
+            throw new IllegalArgumentException("Target CPU utilization must be in (0, 1]");
+        }
+        if (horizon.isZero() || horizon.isNegative()) {
+            throw new IllegalArgumentException("Admission horizon must be positive");
+        }
+        this.targetUtilization = targetUtilization;
+        this.capacityNanos = (long) (targetUtilization * Runtime.getRuntime().availableProcessors()
+                * horizon.toNanos());
+        this.maxWaitNanos = Math.max(maxWait.toNanos(), 0);
+        this.lastSampleNanos = System.nanoTime() - SAMPLE_INTERVAL_NS;
+    }
+
+    public static AdmissionController shared() {
+        return Shared.INSTANCE;
+    }
+
+    // Blocks until the work fits, then counts it as admitted; every
+    // successful acquire must be paired with a release of the same amount
+    public void acquire(long predictedNanos) {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        lock.lock();
+        try {
+            while (admittedNanos > 0 && (admittedNanos + predictedNanos > capacityNanos || overTarget())) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new RejectedExecutionException("Server is at its CPU target - Please retry later.");
+                }
+                try {
+                    released.awaitNanos(Math.min(remaining, SAMPLE_INTERVAL_NS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException("Interrupted while waiting for admission");
+                }
+            }
+            admittedNanos += predictedNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release(long predictedNanos) {
+        lock.lock();
+        try {
+            admittedNanos -= predictedNanos;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getAdmittedNanos() {
+        lock.lock();
+        try {
+            return admittedNanos;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    long getCapacityNanos() {
+        return capacityNanos;
+    }
+
+    // Called with the lock held
+    private boolean overTarget() {
+        long now = System.nanoTime();
+        if (now - lastSampleNanos >= SAMPLE_INTERVAL_NS) {
+            lastSampleNanos = now;
+            cpuLoad = os instanceof com.sun.management.OperatingSystemMXBean
+                    ? ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad() : -1;
+        }
+        return cpuLoad > targetUtilization;
+    }
+
+    private static final class Shared {
+        static final AdmissionController INSTANCE = new AdmissionController(
+                DEFAULT_TARGET_UTILIZATION, DEFAULT_HORIZON, DEFAULT_MAX_WAIT);
+    }
+}
@@ -0,0 +1,182 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+
+// Picks the cheapest method that meets the requested tolerance, driven by
+// error estimates rather than guesses:
+//
+// 1. A probe of 64 interior points counts local extrema (oscillation) to
+//    pick the starting Gauss-Legendre order, and a few points close to each
+//    end look for endpoint singularities (non-finite values or slopes that
+//    blow up towards the end).
+// 2. Smooth integrands: Gauss-Legendre at doubling orders until two
+//    successive orders agree to the tolerance. This converges exponentially,
+//    so it usually ends within a few dozen points. The ladder stops as soon
+//    as the agreement stops improving quickly, which means the integrand is
+//    not smooth.
+// 3. Otherwise the double-exponential rule, first when an endpoint looked
+//    singular (it clusters points at the ends), and adaptive Gauss-Kronrod
+//    for everything else, e.g. kinks or jumps inside the interval.
+//
+// Infinite bounds go straight to the double-exponential rule. Every probe
+// counts towards the reported evaluations.
+public class AutoIntegrator {
+    private static final int PROBE_POINTS = 64;
+    private static final int MIN_GAUSS_ORDER = 8;
+    static final int MAX_GAUSS_ORDER = 512;
+    // Agreement must improve at least this much per doubling to keep going
+    private static final double MIN_CONVERGENCE_RATE = 4;
+    // Endpoint slope growth (closest pair vs. the next) that marks a
+    // singularity; offsets are relative to the width and close enough to the
+    // end that oscillation does not show
+    private static final double ENDPOINT_SLOPE_RATIO = 3;
+    private static final double[] ENDPOINT_OFFSETS = {1e-8, 1e-6, 1e-4};
+    // Fallback budget when the request does not set maxEvaluations
+    static final int DEFAULT_MAX_EVALUATIONS = 100_000;
+    // Probes, the whole Gauss ladder, the double-exponential rule and the fallback
+    static final long MAX_EVALUATIONS = PROBE_POINTS + 2 * ENDPOINT_OFFSETS.length + 2L * MAX_GAUSS_ORDER
+            + DoubleExponentialQuadrature.MAX_EVALUATIONS + DEFAULT_MAX_EVALUATIONS;
+
+    private final IntegrationRequest request;
+    private final BatchFunction f;
+    private final double lowerBound;
+    private final double upperBound;
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+
+    private long evaluations;
+
+    public AutoIntegrator(IntegrationRequest request) {
+        this.request = request;
+        this.f = FunctionCache.get(request.getFunction());
+        this.lowerBound = request.getLowerBound();
+        this.upperBound = request.getUpperBound();
+        this.absoluteTolerance = request.getAbsoluteTolerance() != null
+                ? request.getAbsoluteTolerance() : AdaptiveQuadrature.DEFAULT_ABSOLUTE_TOLERANCE;
+        this.relativeTolerance = request.getRelativeTolerance() != null
+                ? request.getRelativeTolerance() : AdaptiveQuadrature.DEFAULT_RELATIVE_TOLERANCE;
+    }
+
+    public IntegrationResult integrate() {
+        if (Double.isNaN(lowerBound) || Double.isNaN(upperBound)) {
+            throw new IllegalArgumentException("Integration bounds cannot be NaN");
+        }
+        AdaptiveQuadrature.checkTolerances(absoluteTolerance, relativeTolerance);
+        if (lowerBound == upperBound) {
+            return new IntegrationResult(0.0, 0.0, 0L, IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE);
+        }
+        if (Double.isInfinite(lowerBound) || Double.isInfinite(upperBound)) {
+            return doubleExponential();
+        }
+
+        int order = startingOrder();
+        boolean singularEnd = singularEndpoint(lowerBound, 1) || singularEndpoint(upperBound, -1);
+        if (!singularEnd) {
+            IntegrationResult gauss = gaussLadder(order);
+            if (gauss != null) return gauss;
+        }
+        if (singularEnd) {
+            IntegrationResult doubleExponential = doubleExponential();
+            if (meetsTolerance(doubleExponential)) return doubleExponential;
+        }
+        return adaptive();
+    }
+
+    // Local extrema on a uniform grid; the Gauss order needs a couple of
+    // nodes per oscillation before its error estimate means anything
+    private int startingOrder() {
+        BlockBuffers buffers = BlockBuffers.get();
+        double step = (upperBound - lowerBound) / PROBE_POINTS;
+        for (int i = 0; i < PROBE_POINTS; i++) {
+            buffers.x[i] = lowerBound + (i + 0.5) * step;
+        }
+        f.evaluate(buffers.x, buffers.values, PROBE_POINTS);
+        evaluations += PROBE_POINTS;
+
+        int extrema = 0;
+        for (int i = 1; i < PROBE_POINTS - 1; i++) {
+            double before = buffers.values[i] - buffers.values[i - 1];
+            double after = buffers.values[i + 1] - buffers.values[i];
+            if (before * after < 0) extrema++;
+        }
+        int order = MIN_GAUSS_ORDER;
+        while (order < 2 * extrema && order < MAX_GAUSS_ORDER / 2) {
+            order *= 2;
+        }
+        return order;
+    }
+
+    // Compares the mean slope over the closest offsets with the next ones:
+    // for sqrt(x) at 0 it grows tenfold, for smooth functions it stays put
+    private boolean singularEndpoint(double end, int direction) {
+        double width = upperBound - lowerBound;
+        double[] values = new double[ENDPOINT_OFFSETS.length];
+        evaluations += ENDPOINT_OFFSETS.length;
+        for (int i = 0; i < ENDPOINT_OFFSETS.length; i++) {
+            values[i] = f.applyAsDouble(end + direction * ENDPOINT_OFFSETS[i] * width);
+            if (!Double.isFinite(values[i])) return true;
+        }
+        double nearSlope = Math.abs((values[1] - values[0]) / (ENDPOINT_OFFSETS[1] - ENDPOINT_OFFSETS[0]));
+        double farSlope = Math.abs((values[2] - values[1]) / (ENDPOINT_OFFSETS[2] - ENDPOINT_OFFSETS[1]));
+        return nearSlope > ENDPOINT_SLOPE_RATIO * farSlope
+                && nearSlope * width > tolerance(Math.abs(values[1]));
+    }
+
+    // Doubling Gauss-Legendre orders; null once convergence is too slow to
+    // reach the tolerance cheaply
+    private IntegrationResult gaussLadder(int order) {
+        double previous = gauss(order);
+        double previousDifference = Double.POSITIVE_INFINITY;
+        int stalls = 0;
+        for (int n = 2 * order; n <= MAX_GAUSS_ORDER; n *= 2) {
+            Cancellation.check();
+            double estimate = gauss(n);
+            double difference = Math.abs(estimate - previous);
+            if (difference <= tolerance(Math.abs(estimate))) {
+                return new IntegrationResult(estimate, difference, evaluations,
+                        IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE);
+            }
+            if (!(difference * MIN_CONVERGENCE_RATE <= previousDifference) && ++stalls >= 2) {
+                return null;
+            }
+            previous = estimate;
+            previousDifference = difference;
+        }
+        return null;
+    }
+
+    private double gauss(int n) {
+        evaluations += n;
+        return GaussLegendreQuadrature.rule(n).integrate(f, lowerBound, upperBound, null);
+    }
+
+    private IntegrationResult doubleExponential() {
+        DoubleExponentialQuadrature doubleExponential = new DoubleExponentialQuadrature(request);
+        double result = doubleExponential.integrate();
+        evaluations += doubleExponential.getEvaluations();
+        return new IntegrationResult(result, doubleExponential.getErrorEstimate(), evaluations,
+                IntegrationMethod.DOUBLE_EXPONENTIAL);
+    }
+
+    private IntegrationResult adaptive() {
+        IntegrationRequest adaptiveRequest = request.withIntervals(1);
+        if (adaptiveRequest.getMaxEvaluations() == null) {
+            adaptiveRequest.setMaxEvaluations(DEFAULT_MAX_EVALUATIONS);
+        }
+        AdaptiveQuadrature adaptive = new AdaptiveQuadrature(adaptiveRequest);
+        double result = adaptive.integrate();
+        evaluations += adaptive.getEvaluations();
+        return new IntegrationResult(result, adaptive.getErrorEstimate(), evaluations,
+                IntegrationMethod.ADAPTIVE_QUADRATURE);
+    }
+
+    private boolean meetsTolerance(IntegrationResult result) {
+        return result.getErrorEstimate() <= tolerance(Math.abs(result.getResult()));
+    }
+
+    private double tolerance(double magnitude) {
+        return Math.max(absoluteTolerance, relativeTolerance * magnitude);
+    }
+}
@@ -0,0 +1,12 @@
+package com.wistrum.integrationapi.util;
+
+import java.util.function.DoubleUnaryOperator;
+
+// A function of x that can also be evaluated over an array of abscissae in
+// one call. Compiled expressions run one tight loop per tree node over the
+// whole array instead of walking the tree once per point.
+public interface BatchFunction extends DoubleUnaryOperator {
+
+    // values[i] = f(x[i]) for 0 <= i < length; x and values must be distinct
+    void evaluate(double[] x, double[] values, int length);
+}
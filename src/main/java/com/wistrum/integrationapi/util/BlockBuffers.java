@@ -0,0 +1,19 @@
+package com.wistrum.integrationapi.util;
+
+// Per-thread abscissa and value arrays for block-wise function evaluation,
+// reused across blocks and requests. Small enough to stay in L1 cache.
+final class BlockBuffers {
+    static final int SIZE = 256;
+
+    private static final ThreadLocal<BlockBuffers> LOCAL = ThreadLocal.withInitial(BlockBuffers::new);
+
+    final double[] x = new double[SIZE];
+    final double[] values = new double[SIZE];
+
+    private BlockBuffers() {
+    }
+
+    static BlockBuffers get() {
+        return LOCAL.get();
+    }
+}
@@ -0,0 +1,372 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.BulkIntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+
+import java.util.Arrays;
+import java.util.OptionalDouble;
+
+// Integrates one function over many windows at once. Every window bound
+// becomes a breakpoint, the length covered by windows is cut into about
+// 'intervals' panels (gaps between windows are never sampled), and each
+// panel is integrated once. A window's integral is then the difference of
+// two prefix sums, so overlapping and adjacent windows share all of their
+// sample points and the cost barely depends on the number of windows.
+public class BulkIntegrator {
+    private static final int MAX_INTERVALS = 1_000_000;
+    private static final int MAX_WINDOWS = 100_000;
+    private static final double MAX_FUNCTION_VALUE = 1e150;
+    private static final FunctionValues VALUES =
+            new FunctionValues(MAX_FUNCTION_VALUE, "Function may be discontinuous near x = ");
+
+    // Per-panel rules on [0, 1]: a weight shared by both panel ends (so
+    // neighbouring panels evaluate each edge once) plus interior nodes
+    private static final PanelRule TRAPEZOIDAL = new PanelRule(0.5, new double[0], new double[0]);
+    private static final PanelRule MIDPOINT = new PanelRule(0.0, new double[] {0.5}, new double[] {1.0});
+    private static final PanelRule SIMPSON = new PanelRule(1.0 / 6, new double[] {0.5}, new double[] {4.0 / 6});
+    private static final int GAUSS_NODES_PER_PANEL = 5;
+    private static final PanelRule GAUSS_LEGENDRE = gaussLegendre(GAUSS_NODES_PER_PANEL);
+
+    private final BulkIntegrationRequest request;
+    private final BatchFunction f;
+
+    private long evaluations;
+
+    public BulkIntegrator(BulkIntegrationRequest request) {
+        this.request = request;
+        this.f = FunctionCache.get(request.getFunction());
+    }
+
+    // Window integrals in request order, or for a grid the integral from
+    // grid[0] to every grid point
+    public double[] integrate() {
+        double[] lowerBounds = request.getLowerBounds();
+        double[] upperBounds = request.getUpperBounds();
+        double[] grid = request.getGrid();
+        validateInputs(lowerBounds, upperBounds, grid);
+        dropNegativeZeros(lowerBounds);
+        dropNegativeZeros(upperBounds);
+        dropNegativeZeros(grid);
+
+        double[] breakpoints = breakpoints(lowerBounds, upperBounds, grid);
+        boolean[] covered = coveredCells(breakpoints, lowerBounds, upperBounds);
+        double[] prefix = prefixSums(breakpoints, covered, rule(request.getIntegrationMethod()));
+
+        if (grid != null) {
+            double[] results = new double[grid.length];
+            for (int i = 0; i < grid.length; i++) {
+                results[i] = prefix[Arrays.binarySearch(breakpoints, grid[i])];
+            }
+            return results;
+        }
+        double[] results = new double[lowerBounds.length];
+        for (int i = 0; i < lowerBounds.length; i++) {
+            results[i] = prefix[Arrays.binarySearch(breakpoints, upperBounds[i])]
+                    - prefix[Arrays.binarySearch(breakpoints, lowerBounds[i])];
+        }
+        return results;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    // Function evaluations the request will need, without evaluating anything
+    static long estimateEvaluations(BulkIntegrationRequest request) {
+        int windows = request.isCumulative()
+                ? lengthOf(request.getGrid()) : 2 * lengthOf(request.getLowerBounds());
+        long panels = (long) Math.max(request.getIntervals(), 1) + windows;
+        PanelRule rule = request.getIntegrationMethod() == null ? TRAPEZOIDAL : rule(request.getIntegrationMethod());
+        return panels * rule.nodes.length + (rule.edgeWeight != 0 ? panels + 1 : 0);
+    }
+
+    private static int lengthOf(double[] values) {
+        return values == null ? 0 : values.length;
+    }
+
+    private void validateInputs(double[] lowerBounds, double[] upperBounds, double[] grid) {
+        if (request.getIntegrationMethod() == null) {
+            throw new IllegalArgumentException("Integration method is required.");
+        }
+        rule(request.getIntegrationMethod());
+        if (request.getIntervals() < 1) {
+            throw new IllegalArgumentException("Intervals must be at least 1");
+        }
+        if (request.getIntervals() > MAX_INTERVALS) {
+            throw new IllegalArgumentException("Maximum " + MAX_INTERVALS + " intervals allowed");
+        }
+        if (grid != null) {
+            if (lowerBounds != null || upperBounds != null) {
+                throw new IllegalArgumentException("Give either a grid or lower and upper bounds, not both.");
+            }
+            checkWindowCount(grid.length);
+            for (int i = 0; i < grid.length; i++) {
+                checkFinite(grid[i]);
+                if (i > 0 && grid[i] < grid[i - 1]) {
+                    throw new IllegalArgumentException("Grid points must be in ascending order.");
+                }
+            }
+            return;
+        }
+        if (lowerBounds == null || upperBounds == null || lowerBounds.length != upperBounds.length) {
+            throw new IllegalArgumentException("Lower and upper bounds must be given in pairs.");
+        }
+        checkWindowCount(lowerBounds.length);
+        for (int i = 0; i < lowerBounds.length; i++) {
+            checkFinite(lowerBounds[i]);
+            checkFinite(upperBounds[i]);
+            if (lowerBounds[i] > upperBounds[i]) {
+                throw new IllegalArgumentException("Lower bound must be less than or equal to the upper bound.");
+            }
+        }
+    }
+
+    private static void checkWindowCount(int windows) {
+        if (windows < 1) {
+            throw new IllegalArgumentException("At least one window is required.");
+        }
+        if (windows > MAX_WINDOWS) {
+            throw new IllegalArgumentException("Maximum " + MAX_WINDOWS + " windows allowed per request.");
+        }
+    }
+
+    private static void checkFinite(double bound) {
+        if (!Double.isFinite(bound)) {
+            throw new IllegalArgumentException("Integration bounds must be finite");
+        }
+    }
+
+    private static PanelRule rule(IntegrationMethod method) {
+        switch (method) {
+            case TRAPEZOIDAL:
+                return TRAPEZOIDAL;
+            case MIDPOINT:
+                return MIDPOINT;
+            case SIMPSON:
+                return SIMPSON;
+            case GAUSS_LEGENDRE_QUADRATURE:
+                return GAUSS_LEGENDRE;
+            default:
+                throw new IllegalArgumentException("Bulk integration supports TRAPEZOIDAL, MIDPOINT, SIMPSON "
+                        + "and GAUSS_LEGENDRE_QUADRATURE.");
+        }
+    }
+
+    // Sorting and binarySearch order -0.0 before 0.0, while the dedup in
+    // breakpoints treats them as equal; the request getters return copies
+    private static void dropNegativeZeros(double[] values) {
+        if (values == null) return;
+        for (int i = 0; i < values.length; i++) {
+            values[i] += 0.0;
+        }
+    }
+
+    // Sorted distinct window bounds (or grid points)
+    private static double[] breakpoints(double[] lowerBounds, double[] upperBounds, double[] grid) {
+        double[] points;
+        if (grid != null) {
+            points = grid.clone();
+        } else {
+            points = Arrays.copyOf(lowerBounds, lowerBounds.length * 2);
+            System.arraycopy(upperBounds, 0, points, lowerBounds.length, upperBounds.length);
+            Arrays.sort(points);
+        }
+        int distinct = 0;
+        for (int i = 0; i < points.length; i++) {
+            if (i == 0 || points[i] != points[distinct - 1]) {
+                points[distinct++] = points[i];
+            }
+        }
+        return Arrays.copyOf(points, distinct);
+    }
+
+    // Which cells between breakpoints lie inside some window; null when all
+    // do, as for a grid
+    private static boolean[] coveredCells(double[] breakpoints, double[] lowerBounds, double[] upperBounds) {
+        if (lowerBounds == null) return null;
+        int cells = breakpoints.length - 1;
+        int[] depth = new int[cells + 1];
+        for (int i = 0; i < lowerBounds.length; i++) {
+            depth[Arrays.binarySearch(breakpoints, lowerBounds[i])]++;
+            depth[Arrays.binarySearch(breakpoints, upperBounds[i])]--;
+        }
+        boolean[] covered = new boolean[cells];
+        boolean gaps = false;
+        int open = 0;
+        for (int k = 0; k < cells; k++) {
+            open += depth[k];
+            covered[k] = open > 0;
+            gaps |= !covered[k];
+        }
+        return gaps ? covered : null;
+    }
+
+    // prefix[k] is the integral from breakpoints[0] to breakpoints[k], with
+    // uncovered cells counted as zero (no window spans them)
+    private double[] prefixSums(double[] breakpoints, boolean[] covered, PanelRule rule) {
+        int cells = breakpoints.length - 1;
+        double[] prefix = new double[breakpoints.length];
+        if (cells == 0) return prefix;
+
+        double span = 0.0;
+        int runStart = -1;
+        for (int k = 0; k <= cells; k++) {
+            boolean inside = k < cells && (covered == null || covered[k]);
+            if (inside) {
+                span += breakpoints[k + 1] - breakpoints[k];
+                if (runStart < 0) runStart = k;
+            } else if (runStart >= 0) {
+                checkForSingularity(breakpoints[runStart], breakpoints[k]);
+                runStart = -1;
+            }
+        }
+
+        // Panel edges: each covered cell gets its share of the intervals, at
+        // least one; an uncovered cell is a single panel that is skipped
+        int[] firstPanel = new int[cells + 1];
+        for (int k = 0; k < cells; k++) {
+            double width = breakpoints[k + 1] - breakpoints[k];
+            int panels = covered != null && !covered[k]
+                    ? 1 : (int) Math.max(1, Math.ceil(request.getIntervals() * (width / span)));
+            firstPanel[k + 1] = firstPanel[k] + panels;
+        }
+        int panelCount = firstPanel[cells];
+        double[] edges = new double[panelCount + 1];
+        for (int k = 0; k < cells; k++) {
+            int panels = firstPanel[k + 1] - firstPanel[k];
+            double step = (breakpoints[k + 1] - breakpoints[k]) / panels;
+            for (int p = 0; p < panels; p++) {
+                edges[firstPanel[k] + p] = breakpoints[k] + p * step;
+            }
+        }
+        edges[panelCount] = breakpoints[cells];
+
+        boolean[] skipped = null;
+        if (covered != null) {
+            skipped = new boolean[panelCount];
+            for (int k = 0; k < cells; k++) {
+                if (!covered[k]) skipped[firstPanel[k]] = true;
+            }
+        }
+        double[] panelIntegrals = integratePanels(edges, skipped, rule);
+
+        // Kahan-summed running total, so late windows keep their accuracy
+        double sum = 0.0;
+        double compensation = 0.0;
+        for (int k = 0; k < cells; k++) {
+            for (int p = firstPanel[k]; p < firstPanel[k + 1]; p++) {
+                double y = panelIntegrals[p] - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+            }
+            prefix[k + 1] = sum;
+        }
+        return prefix;
+    }
+
+    private void checkForSingularity(double lowerBound, double upperBound) {
+        OptionalDouble singularity = SingularityAnalyzer.findSingularity(request.getFunction(), lowerBound, upperBound);
+        if (singularity.isPresent()) {
+            throw new ArithmeticException("Singularity detected at x = " + singularity.getAsDouble());
+        }
+    }
+
+    private double[] integratePanels(double[] edges, boolean[] skipped, PanelRule rule) {
+        int panelCount = edges.length - 1;
+        double[] integrals = new double[panelCount];
+        int chunks = (panelCount + CompositeSum.CHUNK_SIZE - 1) / CompositeSum.CHUNK_SIZE;
+
+        double[] edgeValues = null;
+        if (rule.edgeWeight != 0) {
+            double[] values = new double[edges.length];
+            int edgeChunks = (edges.length + CompositeSum.CHUNK_SIZE - 1) / CompositeSum.CHUNK_SIZE;
+            CompositeSum.forEachChunk(edgeChunks, c -> evaluateEdges(edges, values, c), request.isParallel());
+            edgeValues = values;
+            evaluations += edges.length;
+        }
+        double[] ends = edgeValues;
+        CompositeSum.forEachChunk(chunks,
+                c -> integrateChunk(edges, ends, skipped, rule, integrals, c), request.isParallel());
+        int skippedPanels = 0;
+        if (skipped != null) {
+            for (boolean skip : skipped) if (skip) skippedPanels++;
+        }
+        evaluations += (long) (panelCount - skippedPanels) * rule.nodes.length;
+        return integrals;
+    }
+
+    private void evaluateEdges(double[] edges, double[] values, int chunk) {
+        int start = chunk * CompositeSum.CHUNK_SIZE;
+        int end = Math.min(start + CompositeSum.CHUNK_SIZE, edges.length);
+        BlockBuffers buffers = BlockBuffers.get();
+        for (int block = start; block < end; block += BlockBuffers.SIZE) {
+            int length = Math.min(BlockBuffers.SIZE, end - block);
+            System.arraycopy(edges, block, buffers.x, 0, length);
+            f.evaluate(buffers.x, buffers.values, length);
+            VALUES.check(buffers.x, buffers.values, length);
+            System.arraycopy(buffers.values, 0, values, block, length);
+        }
+    }
+
+    // Interior nodes of whole panels are packed into each block
+    private void integrateChunk(double[] edges, double[] edgeValues, boolean[] skipped, PanelRule rule,
+            double[] integrals, int chunk) {
+        int start = chunk * CompositeSum.CHUNK_SIZE;
+        int end = Math.min(start + CompositeSum.CHUNK_SIZE, integrals.length);
+        int nodes = rule.nodes.length;
+        BlockBuffers buffers = BlockBuffers.get();
+        double[] x = buffers.x;
+        double[] values = buffers.values;
+        int panelsPerBlock = nodes == 0 ? end - start : BlockBuffers.SIZE / nodes;
+        for (int first = start; first < end; first += panelsPerBlock) {
+            int last = Math.min(first + panelsPerBlock, end);
+            if (nodes > 0) {
+                int length = 0;
+                for (int p = first; p < last; p++) {
+                    if (skipped != null && skipped[p]) continue;
+                    double h = edges[p + 1] - edges[p];
+                    for (int j = 0; j < nodes; j++) {
+                        x[length++] = edges[p] + h * rule.nodes[j];
+                    }
+                }
+                f.evaluate(x, values, length);
+                VALUES.check(x, values, length);
+            }
+            int offset = 0;
+            for (int p = first; p < last; p++) {
+                if (skipped != null && skipped[p]) continue;
+                double h = edges[p + 1] - edges[p];
+                double sum = rule.edgeWeight != 0 ? rule.edgeWeight * (edgeValues[p] + edgeValues[p + 1]) : 0.0;
+                for (int j = 0; j < nodes; j++) {
+                    sum += rule.weights[j] * values[offset++];
+                }
+                integrals[p] = h * sum;
+            }
+        }
+    }
+
+    private static final class PanelRule {
+        final double edgeWeight;
+        final double[] nodes;
+        final double[] weights;
+
+        PanelRule(double edgeWeight, double[] nodes, double[] weights) {
+            this.edgeWeight = edgeWeight;
+            this.nodes = nodes;
+            this.weights = weights;
+        }
+    }
+
+    // Gauss-Legendre nodes mapped from [-1, 1] to [0, 1]
+    private static PanelRule gaussLegendre(int n) {
+        QuadratureRule rule = GaussLegendreQuadrature.rule(n);
+        double[] nodes = new double[n];
+        double[] weights = new double[n];
+        for (int i = 0; i < n; i++) {
+            nodes[i] = (rule.node(i) + 1) / 2;
+            weights[i] = rule.weight(i) / 2;
+        }
+        return new PanelRule(0.0, nodes, weights);
+    }
+}
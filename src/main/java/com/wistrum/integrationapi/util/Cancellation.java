@@ -0,0 +1,23 @@
+package com.wistrum.integrationapi.util;
+
+import java.util.concurrent.CancellationException;
+
+// Cooperative cancellation for the integration loops. Timed-out work is
+// cancelled by interrupting the scheduler thread that owns it; loops poll the
+// owner's interrupt flag (workers helping a parallel request poll the thread
+// that asked for help) and bail out so the core is freed.
+final class Cancellation {
+
+    private Cancellation() {
+    }
+
+    static void check() {
+        check(Thread.currentThread());
+    }
+
+    static void check(Thread owner) {
+        if (owner.isInterrupted()) {
+            throw new CancellationException("Integration was cancelled");
+        }
+    }
+}
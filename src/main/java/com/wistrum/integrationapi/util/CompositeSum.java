@@ -0,0 +1,80 @@
+package com.wistrum.integrationapi.util;
+
+import java.util.function.IntConsumer;
+import java.util.function.IntToDoubleFunction;
+
+// Sums f over an index range of grid points for the composite rules. The range is cut
+// into fixed-size chunks that are Kahan-summed independently and then
+// combined pairwise in a fixed order, so the result is bit-for-bit the same
+// whether the chunks run on one thread or spread over scheduler workers.
+final class CompositeSum {
+    static final int CHUNK_SIZE = 8_192;
+
+    private CompositeSum() {
+    }
+
+    // Sums f(abscissa(i)) over [from, to). Within each chunk the abscissae are
+    // generated a block at a time, f is evaluated over the whole block and the
+    // values are checked once, then Kahan-summed in index order.
+    static double sum(BatchFunction f, IntToDoubleFunction abscissa, FunctionValues check,
+            int from, int to, boolean parallel) {
+        if (to <= from) return 0.0;
+        int chunks = (int) (((long) to - from + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        double[] partials = new double[chunks];
+
+        forEachChunk(chunks, c -> partials[c] = sumChunk(f, abscissa, check, from, to, c), parallel);
+        return pairwise(partials, 0, chunks);
+    }
+
+    // Runs body for every chunk index; when parallel, idle workers of the
+    // caller's scheduler help out (IntegrationScheduler.forEach). Callers
+    // write per-chunk results into their own slots and reduce them afterwards
+    // in a fixed order.
+    static void forEachChunk(int chunks, IntConsumer body, boolean parallel) {
+        // Helpers poll the submitting thread so a cancelled integration stops
+        Thread owner = Thread.currentThread();
+        IntConsumer checked = c -> {
+            Cancellation.check(owner);
+            body.accept(c);
+        };
+        if (parallel && chunks > 1) {
+            IntegrationScheduler.current().forEach(chunks, checked);
+        } else {
+            for (int c = 0; c < chunks; c++) {
+                checked.accept(c);
+            }
+        }
+    }
+
+    private static double sumChunk(BatchFunction f, IntToDoubleFunction abscissa, FunctionValues check,
+            int from, int to, int chunk) {
+        int start = from + chunk * CHUNK_SIZE;
+        int end = (int) Math.min((long) start + CHUNK_SIZE, to);
+        BlockBuffers buffers = BlockBuffers.get();
+        double[] x = buffers.x;
+        double[] values = buffers.values;
+        double sum = 0.0;
+        double compensation = 0.0;
+        for (int block = start; block < end; block += BlockBuffers.SIZE) {
+            int length = Math.min(BlockBuffers.SIZE, end - block);
+            for (int k = 0; k < length; k++) {
+                x[k] = abscissa.applyAsDouble(block + k);
+            }
+            f.evaluate(x, values, length);
+            if (check != null) check.check(x, values, length);
+            for (int k = 0; k < length; k++) {
+                double y = values[k] - compensation;
+                double t = sum + y;
+                compensation = (t - sum) - y;
+                sum = t;
+            }
+        }
+        return sum;
+    }
+
+    private static double pairwise(double[] values, int from, int to) {
+        if (to - from == 1) return values[from];
+        int mid = (from + to) >>> 1;
+        return pairwise(values, from, mid) + pairwise(values, mid, to);
+    }
+}
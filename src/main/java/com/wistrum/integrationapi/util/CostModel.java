@@ -0,0 +1,131 @@
+package com.wistrum.integrationapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.wistrum.integrationapi.model.BulkIntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.MultipleIntegrationRequest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// Predicts a request's run time before it starts: the function evaluations
+// IntegrationCost expects, times the measured cost of one evaluation of that
+// expression, plus computing any Gauss-Legendre or Lobatto node table that
+// is not cached yet (Newton iteration on every node, so O(n^2)).
+//
+// Nothing is evaluated on the request thread to predict: an expression that
+// has not run yet is assumed to cost as much as an interpreted one, and from
+// its first run on the cost is a moving average of the CPU time that runs
+// actually took, which also folds in the integrators' own per-point overhead.
+public final class CostModel {
+    private static final long MAX_ENTRIES = 1_000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+    // Weight of each observed run in the moving average
+    private static final double SMOOTHING = 0.2;
+    // Runs this short are dominated by fixed overhead and say little
+    private static final long MIN_OBSERVED_EVALUATIONS = 4_096;
+    // Until an expression has run; roughly an interpreted evaluation
+    static final double DEFAULT_NANOS_PER_EVALUATION = 1_000;
+    // Measured node-table setup, in ns per n^2
+    private static final double GAUSS_LEGENDRE_SETUP_NS = 10;
+    private static final double LOBATTO_SETUP_NS = 22;
+
+    // Keyed like FunctionCache: normalized expression, prefixed with the
+    // dimension count for multivariate functions
+    private static final Cache<String, EvaluationCost> COSTS = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .recordStats()
+            .build();
+
+    static {
+        IntegrationMetrics.monitor(COSTS, "evaluation_costs");
+    }
+
+    private CostModel() {
+    }
+
+    // 0 when the request is too malformed to estimate; validation rejects it
+    public static long predictNanos(IntegrationRequest request) {
+        if (request == null || request.getIntegrationMethod() == null || request.getFunction() == null) return 0;
+        double nanos = IntegrationCost.estimateEvaluations(request) * nanosPerEvaluation(request.getFunction())
+                + nodeSetupNanos(request.getIntegrationMethod(), request.getIntervals());
+        // Monte Carlo stops at its own time budget
+        if (request.getTimeBudgetMs() != null) {
+            nanos = Math.min(nanos, TimeUnit.MILLISECONDS.toNanos(request.getTimeBudgetMs()));
+        }
+        return (long) Math.min(nanos, Long.MAX_VALUE);
+    }
+
+    public static long predictNanos(MultipleIntegrationRequest request) {
+        if (request == null || request.getMethod() == null || request.getFunction() == null) return 0;
+        double perEvaluation = nanosPerEvaluation(request.getFunction(), request.getDimensions());
+        return (long) Math.min(IntegrationCost.estimateEvaluations(request) * perEvaluation, Long.MAX_VALUE);
+    }
+
+    public static long predictNanos(BulkIntegrationRequest request) {
+        if (request == null || request.getFunction() == null) return 0;
+        double perEvaluation = nanosPerEvaluation(request.getFunction());
+        return (long) Math.min(IntegrationCost.estimateEvaluations(request) * perEvaluation, Long.MAX_VALUE);
+    }
+
+    static double nanosPerEvaluation(String expression) {
+        return costOf(FunctionCache.normalize(expression));
+    }
+
+    static double nanosPerEvaluation(String expression, int dimensions) {
+        return costOf(dimensions + ":" + FunctionCache.normalize(expression));
+    }
+
+    // Folds a finished run's CPU time into the expression's cost; the first
+    // run replaces the default
+    static void observe(String expression, long evaluations, long cpuNanos) {
+        fold(FunctionCache.normalize(expression), evaluations, cpuNanos);
+    }
+
+    static void observe(String expression, int dimensions, long evaluations, long cpuNanos) {
+        fold(dimensions + ":" + FunctionCache.normalize(expression), evaluations, cpuNanos);
+    }
+
+    static double nodeSetupNanos(IntegrationMethod method, int n) {
+        switch (method) {
+            case GAUSS_LEGENDRE_QUADRATURE:
+                return GaussLegendreQuadrature.hasRule(n) ? 0 : GAUSS_LEGENDRE_SETUP_NS * n * (double) n;
+            case LOBATTO_QUADRATURE:
+                return LobattoQuadrature.hasRule(n) ? 0 : LOBATTO_SETUP_NS * n * (double) n;
+            default:
+                return 0;
+        }
+    }
+
+    private static double costOf(String key) {
+        EvaluationCost cost = COSTS.getIfPresent(key);
+        return cost != null ? cost.nanos : DEFAULT_NANOS_PER_EVALUATION;
+    }
+
+    private static void fold(String key, long evaluations, long cpuNanos) {
+        if (evaluations < MIN_OBSERVED_EVALUATIONS) return;
+        double observed = Math.max(cpuNanos, 1) / (double) evaluations;
+        EvaluationCost cost = COSTS.getIfPresent(key);
+        if (cost != null) {
+            cost.update(observed);
+        } else {
+            COSTS.put(key, new EvaluationCost(observed));
+        }
+    }
+
+    private static final class EvaluationCost {
+        // Races between concurrent updates only lose a sample
+        volatile double nanos;
+
+        EvaluationCost(double nanos) {
+            this.nanos = nanos;
+        }
+
+        void update(double observed) {
+            nanos += SMOOTHING * (observed - nanos);
+        }
+    }
+}
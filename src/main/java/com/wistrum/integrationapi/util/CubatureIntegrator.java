@@ -0,0 +1,320 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.CubatureMethod;
+import com.wistrum.integrationapi.model.MultipleIntegrationRequest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Double and triple integrals over a box from the cached Gauss-Legendre
+// tables. TENSOR_GAUSS_LEGENDRE applies an n-point rule on every axis
+// (n^d points). SPARSE_GRID uses the Smolyak combination of small tensor
+// grids: it needs far fewer points when the integrand is close to a sum of
+// one- and two-variable terms, while strongly coupled smooth integrands in
+// two or three dimensions are usually cheaper on the full tensor grid.
+// MONTE_CARLO and QUASI_MONTE_CARLO sample the box instead (see monteCarlo),
+// for integrands too rough for either grid.
+//
+// Every tensor grid is swept with x innermost, a block of x values at a
+// time; the nodes of the outermost axis are spread over idle scheduler workers
+// and their partial sums are added in node order, so parallel runs give
+// bit-identical results.
+public class CubatureIntegrator {
+    private static final long MAX_POINTS = 10_000_000;
+    private static final int MAX_LEVEL = 40;
+    private static final double MAX_FUNCTION_VALUE = 1e150;
+    // Halton bases for x, y and z
+    private static final int[] HALTON_BASES = {2, 3, 5};
+    private static final FunctionValues VALUES =
+            new FunctionValues(MAX_FUNCTION_VALUE, "Function evaluation failed at x = ");
+
+    private final MultipleIntegrationRequest request;
+    private final int dimensions;
+    // In radians; converted once validation has checked the angular measure
+    private double[] lowerBounds;
+    private double[] upperBounds;
+
+    private long evaluations;
+    private Double errorEstimate;
+
+    public CubatureIntegrator(MultipleIntegrationRequest request) {
+        this.request = request;
+        this.dimensions = request.getDimensions();
+    }
+
+    public double integrate() {
+        validateInputs();
+        MultivariateFunction f = FunctionCache.get(request.getFunction(), dimensions);
+        if (isMonteCarlo(request.getMethod())) {
+            return monteCarlo(f, request.getMethod() == CubatureMethod.QUASI_MONTE_CARLO);
+        }
+        double total = 0.0;
+        for (Term term : terms(request)) {
+            total += term.coefficient * tensor(f, term.rules);
+        }
+        return total;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    // Standard error of the Monte Carlo methods; null for the grids
+    public Double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    // Grid points the request will evaluate, without evaluating anything.
+    // Requests that validation rejects anyway count as empty.
+    static long points(MultipleIntegrationRequest request) {
+        if (request.getDimensions() < 2 || request.getDimensions() > 3) {
+            return 0;
+        }
+        if (isMonteCarlo(request.getMethod())) {
+            return Math.max(request.getIntervals(), 0);
+        }
+        if (request.getMethod() == CubatureMethod.SPARSE_GRID) {
+            if (request.getLevel() < 0 || request.getLevel() > MAX_LEVEL) return 0;
+            long points = 0;
+            int q = request.getLevel() + request.getDimensions();
+            int[] index = firstIndex(request.getDimensions());
+            do {
+                if (sum(index) > q - request.getDimensions()) {
+                    long size = 1;
+                    for (int level : index) size *= sparseOrder(level);
+                    points += size;
+                }
+            } while (nextIndex(index, q));
+            return points;
+        }
+        long points = 1;
+        for (int axis = 0; axis < request.getDimensions(); axis++) {
+            points *= Math.max(request.getIntervals(), 0);
+            if (points > MAX_POINTS) return points;
+        }
+        return points;
+    }
+
+    private void validateInputs() {
+        if (request.getAngularMeasure() == null) {
+            throw new IllegalArgumentException("Angular measure is required.");
+        }
+        if (request.getMethod() == null) {
+            throw new IllegalArgumentException("Cubature method is required.");
+        }
+        lowerBounds = request.getLowerBounds();
+        upperBounds = request.getUpperBounds();
+        if (lowerBounds == null || upperBounds == null || lowerBounds.length != upperBounds.length) {
+            throw new IllegalArgumentException("Lower and upper bounds must be given for every axis.");
+        }
+        if (dimensions < 2 || dimensions > 3) {
+            throw new IllegalArgumentException("Only double and triple integrals are supported.");
+        }
+        for (int axis = 0; axis < dimensions; axis++) {
+            if (!Double.isFinite(lowerBounds[axis]) || !Double.isFinite(upperBounds[axis])) {
+                throw new IllegalArgumentException("Integration bounds must be finite");
+            }
+            if (lowerBounds[axis] >= upperBounds[axis]) {
+                throw new IllegalArgumentException("Lower bound must be less than upper bound");
+            }
+        }
+        if (request.getMethod() == CubatureMethod.TENSOR_GAUSS_LEGENDRE && request.getIntervals() < 1) {
+            throw new IllegalArgumentException("Intervals must be at least 1");
+        }
+        if (isMonteCarlo(request.getMethod()) && request.getIntervals() < 2) {
+            throw new IllegalArgumentException("Monte Carlo integration requires at least two samples");
+        }
+        if (request.getMethod() == CubatureMethod.SPARSE_GRID
+                && (request.getLevel() < 0 || request.getLevel() > MAX_LEVEL)) {
+            throw new IllegalArgumentException("Sparse grid level must be between 0 and " + MAX_LEVEL);
+        }
+        if (points(request) > MAX_POINTS) {
+            throw new IllegalArgumentException("Maximum " + MAX_POINTS + " grid points allowed");
+        }
+    }
+
+    private static boolean isMonteCarlo(CubatureMethod method) {
+        return method == CubatureMethod.MONTE_CARLO || method == CubatureMethod.QUASI_MONTE_CARLO;
+    }
+
+    // Samples the box in MonteCarloIntegrator's seeded blocks, so results do
+    // not depend on the thread count. The quasi variant takes the Halton
+    // sequence under an independent random shift per block.
+    private double monteCarlo(MultivariateFunction f, boolean quasi) {
+        int samples = request.getIntervals();
+        double[] widths = new double[dimensions];
+        double volume = 1.0;
+        for (int axis = 0; axis < dimensions; axis++) {
+            widths[axis] = upperBounds[axis] - lowerBounds[axis];
+            volume *= widths[axis];
+        }
+
+        SplittableRandom[] streams = MonteCarloIntegrator.streams(request.getSeed());
+        Thread owner = Thread.currentThread();
+        MonteCarloIntegrator.Moments[] blocks = new MonteCarloIntegrator.Moments[MonteCarloIntegrator.BLOCKS];
+        CompositeSum.forEachChunk(MonteCarloIntegrator.BLOCKS, b -> {
+            SplittableRandom random = streams[b];
+            double[] shift = new double[dimensions];
+            for (int axis = 0; axis < dimensions; axis++) {
+                shift[axis] = random.nextDouble();
+            }
+            double[] point = new double[3];
+            MonteCarloIntegrator.Moments moments = new MonteCarloIntegrator.Moments();
+            for (int i = 0; i < MonteCarloIntegrator.blockSamples(samples, b); i++) {
+                if (i % MonteCarloIntegrator.CHECK_INTERVAL == 0 && i > 0) {
+                    Cancellation.check(owner);
+                }
+                for (int axis = 0; axis < dimensions; axis++) {
+                    double u = quasi
+                            ? MonteCarloIntegrator.shifted(
+                                    MonteCarloIntegrator.radicalInverse(i + 1L, HALTON_BASES[axis]), shift[axis])
+                            : random.nextDouble();
+                    point[axis] = lowerBounds[axis] + u * widths[axis];
+                }
+                double value = f.value(point[0], point[1], point[2]);
+                if (!(Math.abs(value) <= MAX_FUNCTION_VALUE)) {
+                    throw new ArithmeticException("Function evaluation failed at x = " + point[0] + ", y = "
+                            + point[1] + (dimensions == 3 ? ", z = " + point[2] : ""));
+                }
+                moments.add(value);
+            }
+            blocks[b] = moments;
+        }, request.isParallel());
+
+        MonteCarloIntegrator.Estimate estimate = quasi
+                ? MonteCarloIntegrator.poolShifts(blocks) : MonteCarloIntegrator.pool(blocks);
+        evaluations += estimate.samples;
+        errorEstimate = estimate.standardError != null ? volume * estimate.standardError : null;
+        return volume * estimate.mean;
+    }
+
+    // A tensor grid and its weight in the combination
+    private static final class Term {
+        final double coefficient;
+        final QuadratureRule[] rules;
+
+        Term(double coefficient, QuadratureRule[] rules) {
+            this.coefficient = coefficient;
+            this.rules = rules;
+        }
+    }
+
+    private static List<Term> terms(MultipleIntegrationRequest request) {
+        int d = request.getDimensions();
+        if (request.getMethod() == CubatureMethod.TENSOR_GAUSS_LEGENDRE) {
+            QuadratureRule[] rules = new QuadratureRule[d];
+            Arrays.fill(rules, GaussLegendreQuadrature.rule(request.getIntervals()));
+            return List.of(new Term(1.0, rules));
+        }
+        // Smolyak: sum over q-d < |l| <= q of (-1)^(q-|l|) C(d-1, q-|l|) U^l1 x ... x U^ld
+        int q = request.getLevel() + d;
+        List<Term> terms = new ArrayList<>();
+        int[] index = firstIndex(d);
+        do {
+            int k = q - sum(index);
+            if (k < d) {
+                QuadratureRule[] rules = new QuadratureRule[d];
+                for (int axis = 0; axis < d; axis++) {
+                    rules[axis] = GaussLegendreQuadrature.rule(sparseOrder(index[axis]));
+                }
+                double binomial = k == 0 || k == d - 1 ? 1 : d - 1;
+                terms.add(new Term((k % 2 == 0 ? 1 : -1) * binomial, rules));
+            }
+        } while (nextIndex(index, q));
+        return terms;
+    }
+
+    // Gauss-Legendre order of 1-D level l: 1, 3, 5, ... points, exact up to
+    // degree 4l - 3
+    private static int sparseOrder(int level) {
+        return 2 * level - 1;
+    }
+
+    private static int[] firstIndex(int dimensions) {
+        int[] index = new int[dimensions];
+        Arrays.fill(index, 1);
+        return index;
+    }
+
+    // Steps through all multi-indices with entries >= 1 and |index| <= maxSum
+    private static boolean nextIndex(int[] index, int maxSum) {
+        for (int axis = 0; axis < index.length; axis++) {
+            index[axis]++;
+            if (sum(index) <= maxSum) return true;
+            index[axis] = 1;
+        }
+        return false;
+    }
+
+    private static int sum(int[] index) {
+        int sum = 0;
+        for (int level : index) sum += level;
+        return sum;
+    }
+
+    private double tensor(MultivariateFunction f, QuadratureRule[] rules) {
+        double[] scale = new double[dimensions];
+        double[] shift = new double[dimensions];
+        double volume = 1.0;
+        long size = 1;
+        for (int axis = 0; axis < dimensions; axis++) {
+            scale[axis] = (upperBounds[axis] - lowerBounds[axis]) / 2.0;
+            shift[axis] = (upperBounds[axis] + lowerBounds[axis]) / 2.0;
+            volume *= scale[axis];
+            size *= rules[axis].size();
+        }
+
+        int outerAxis = dimensions - 1;
+        QuadratureRule outer = rules[outerAxis];
+        double[] partials = new double[outer.size()];
+        CompositeSum.forEachChunk(outer.size(), j -> {
+            double coordinate = scale[outerAxis] * outer.node(j) + shift[outerAxis];
+            double inner;
+            if (dimensions == 2) {
+                inner = sweepX(f, rules[0], scale[0], shift[0], coordinate, 0.0);
+            } else {
+                inner = 0.0;
+                QuadratureRule middle = rules[1];
+                for (int k = 0; k < middle.size(); k++) {
+                    double y = scale[1] * middle.node(k) + shift[1];
+                    inner += middle.weight(k) * sweepX(f, rules[0], scale[0], shift[0], y, coordinate);
+                }
+            }
+            partials[j] = outer.weight(j) * inner;
+        }, request.isParallel());
+        evaluations += size;
+
+        double sum = 0.0;
+        for (double partial : partials) {
+            sum += partial;
+        }
+        return volume * sum;
+    }
+
+    // Weighted sum of f over the x nodes at fixed y and z
+    private double sweepX(MultivariateFunction f, QuadratureRule rule, double scale, double shift,
+            double y, double z) {
+        BlockBuffers buffers = BlockBuffers.get();
+        double[] x = buffers.x;
+        double[] values = buffers.values;
+        double sum = 0.0;
+        for (int block = 0; block < rule.size(); block += BlockBuffers.SIZE) {
+            int length = Math.min(BlockBuffers.SIZE, rule.size() - block);
+            for (int k = 0; k < length; k++) {
+                x[k] = scale * rule.nodes[block + k] + shift;
+            }
+            f.evaluate(x, y, z, values, length);
+            try {
+                VALUES.check(x, values, length);
+            } catch (ArithmeticException e) {
+                throw new ArithmeticException(e.getMessage() + ", y = " + y + (dimensions == 3 ? ", z = " + z : ""));
+            }
+            for (int k = 0; k < length; k++) {
+                sum += rule.weights[block + k] * values[k];
+            }
+        }
+        return sum;
+    }
+}
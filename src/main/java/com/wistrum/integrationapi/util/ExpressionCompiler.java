@@ -0,0 +1,806 @@
+package com.wistrum.integrationapi.util;
+
+import org.mariuszgromada.math.mxparser.Function;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+// Parses a function of x once into a tree of small final node classes so the
+// integrators evaluate plain Java arithmetic instead of re-interpreting the
+// expression through mXparser on every sample. Anything outside the supported
+// grammar, or any tree that disagrees with mXparser on the verification
+// points, falls back to a thread-confined mXparser Function.
+//
+// Trees also evaluate whole arrays of abscissae (BatchFunction): each node
+// runs one loop over the block, with constant operands applied in place, so
+// the JIT sees simple array loops it can unroll and auto-vectorize.
+//
+// Functions of y and z as well (MultivariateFunction) share the same nodes:
+// y and z are held in the per-thread scratch and stay fixed over a block.
+public final class ExpressionCompiler {
+    private static final double[] VERIFICATION_POINTS = {
+        -7.3, -2.5, -1.0, -0.35, 0.0, 0.2, 0.5, 1.0, 1.7, 3.1, 12.9
+    };
+    private static final double VERIFICATION_TOLERANCE = 1e-9;
+    private static final String[] VARIABLES = {"x", "y", "z"};
+
+    private ExpressionCompiler() {
+    }
+
+    public static BatchFunction compile(String expression) {
+        Function reference = new Function("f(x) = " + expression);
+        if (!reference.checkSyntax()) {
+            throw new IllegalArgumentException("Invalid function syntax: " + expression);
+        }
+        Node tree = new Parser(expression, 1).parse();
+        if (tree != null && agreesWith(tree, reference)) {
+            return tree;
+        }
+        return new MxparserFunction(expression);
+    }
+
+    // Compiles a function of the first 'dimensions' of x, y and z
+    public static MultivariateFunction compile(String expression, int dimensions) {
+        String arguments = String.join(",", Arrays.copyOf(VARIABLES, dimensions));
+        Function reference = new Function("f(" + arguments + ") = " + expression);
+        if (!reference.checkSyntax()) {
+            throw new IllegalArgumentException("Invalid function syntax: " + expression);
+        }
+        Node tree = new Parser(expression, dimensions).parse();
+        if (tree != null) {
+            Multivariate compiled = new Multivariate(tree);
+            if (agreesWith(compiled, reference, dimensions)) {
+                return compiled;
+            }
+        }
+        return new MxparserMultivariateFunction(expression, dimensions);
+    }
+
+    public static boolean isCompiled(DoubleUnaryOperator function) {
+        return function instanceof Node;
+    }
+
+    public static boolean isCompiled(MultivariateFunction function) {
+        return function instanceof Multivariate;
+    }
+
+    private static boolean agreesWith(Node tree, Function reference) {
+        for (double x : VERIFICATION_POINTS) {
+            if (!agrees(reference.calculate(x), tree.applyAsDouble(x))) return false;
+        }
+        return true;
+    }
+
+    // y and z walk the verification points at different offsets from x
+    private static boolean agreesWith(Multivariate compiled, Function reference, int dimensions) {
+        int n = VERIFICATION_POINTS.length;
+        for (int i = 0; i < n; i++) {
+            double x = VERIFICATION_POINTS[i];
+            double y = VERIFICATION_POINTS[(i + 3) % n];
+            double z = VERIFICATION_POINTS[(i + 7) % n];
+            double expected = dimensions == 2 ? reference.calculate(x, y) : reference.calculate(x, y, z);
+            if (!agrees(expected, compiled.value(x, y, z))) return false;
+        }
+        return true;
+    }
+
+    private static boolean agrees(double expected, double actual) {
+        if (!Double.isFinite(expected) || !Double.isFinite(actual)) {
+            // mXparser reports NaN where Java arithmetic may give infinity
+            return Double.isFinite(expected) == Double.isFinite(actual);
+        }
+        double scale = Math.max(1.0, Math.max(Math.abs(expected), Math.abs(actual)));
+        return Math.abs(expected - actual) <= VERIFICATION_TOLERANCE * scale;
+    }
+
+    // Recursive-descent parser following mXparser precedence: implicit
+    // multiplication ("2x", "2(x+1)", "x(2)"), right-associative '^' and a
+    // leading '-' before a number literal binding as part of the literal.
+    private static final class Parser {
+        private final String input;
+        private final int dimensions;
+        private int pos;
+
+        Parser(String input, int dimensions) {
+            this.input = input;
+            this.dimensions = dimensions;
+        }
+
+        Node parse() {
+            try {
+                Node result = parseExpression();
+                skipWhitespace();
+                return pos == input.length() ? result : null;
+            } catch (UnsupportedSyntax e) {
+                return null;
+            }
+        }
+
+        private Node parseExpression() {
+            Node left = parseTerm();
+            while (true) {
+                if (consume('+')) {
+                    left = Add.of(left, parseTerm());
+                } else if (consume('-')) {
+                    left = Subtract.of(left, parseTerm());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node parseTerm() {
+            Node left = parseUnary();
+            while (true) {
+                if (consume('*')) {
+                    left = Multiply.of(left, parseUnary());
+                } else if (consume('/')) {
+                    left = Divide.of(left, parseUnary());
+                } else if (startsPrimary()) {
+                    left = Multiply.of(left, parsePower());
+                } else {
+                    return left;
+                }
+            }
+        }
+
+        private Node parseUnary() {
+            if (consume('+')) {
+                return parseUnary();
+            }
+            if (consume('-')) {
+                skipWhitespace();
+                if (pos < input.length() && isNumberStart(input.charAt(pos))) {
+                    return parsePowerOf(new Constant(-parseNumber()));
+                }
+                return Negate.of(parseUnary());
+            }
+            return parsePower();
+        }
+
+        private Node parsePower() {
+            return parsePowerOf(parsePrimary());
+        }
+
+        private Node parsePowerOf(Node base) {
+            if (consume('^')) {
+                return Power.of(base, parseUnary());
+            }
+            return base;
+        }
+
+        private Node parsePrimary() {
+            skipWhitespace();
+            if (pos >= input.length()) throw new UnsupportedSyntax();
+            char c = input.charAt(pos);
+            if (isNumberStart(c)) {
+                return new Constant(parseNumber());
+            }
+            if (c == '(') {
+                pos++;
+                Node inner = parseExpression();
+                expect(')');
+                return inner;
+            }
+            if (Character.isLetter(c)) {
+                String name = parseIdentifier();
+                if (peek('(')) {
+                    return parseCall(name);
+                }
+                switch (name) {
+                    case "x":
+                        return Variable.X;
+                    case "y":
+                        if (dimensions < 2) throw new UnsupportedSyntax();
+                        return Coordinate.Y;
+                    case "z":
+                        if (dimensions < 3) throw new UnsupportedSyntax();
+                        return Coordinate.Z;
+                    case "pi":
+                        return new Constant(Math.PI);
+                    case "e":
+                        return new Constant(Math.E);
+                    default:
+                        throw new UnsupportedSyntax();
+                }
+            }
+            throw new UnsupportedSyntax();
+        }
+
+        private Node parseCall(String name) {
+            expect('(');
+            List<Node> args = new ArrayList<>();
+            args.add(parseExpression());
+            while (consume(',')) {
+                args.add(parseExpression());
+            }
+            expect(')');
+
+            if (name.equals("x") && args.size() == 1) {
+                return Multiply.of(Variable.X, args.get(0)); // "x(2)" is x * 2 in mXparser
+            }
+            if (name.equals("log") && args.size() == 2) {
+                return Divide.of(UnaryCall.of(Math::log, args.get(1)),
+                        UnaryCall.of(Math::log, args.get(0)));
+            }
+            if (args.size() != 1) throw new UnsupportedSyntax();
+            DoubleUnaryOperator op = elementaryFunction(name);
+            if (op == null) throw new UnsupportedSyntax();
+            return UnaryCall.of(op, args.get(0));
+        }
+
+        private static DoubleUnaryOperator elementaryFunction(String name) {
+            switch (name) {
+                case "sin": return Math::sin;
+                case "cos": return Math::cos;
+                case "tan": case "tg": return Math::tan;
+                case "cot": case "ctg": return v -> 1.0 / Math.tan(v);
+                case "sec": return v -> 1.0 / Math.cos(v);
+                case "csc": case "cosec": return v -> 1.0 / Math.sin(v);
+                case "asin": case "arcsin": return Math::asin;
+                case "acos": case "arccos": return Math::acos;
+                case "atan": case "arctan": case "atg": return Math::atan;
+                case "sinh": return Math::sinh;
+                case "cosh": return Math::cosh;
+                case "tanh": return Math::tanh;
+                case "exp": return Math::exp;
+                case "ln": return Math::log;
+                case "log10": case "lg": return Math::log10;
+                case "log2": return v -> Math.log(v) / Math.log(2.0);
+                case "sqrt": return Math::sqrt;
+                case "abs": return Math::abs;
+                default: return null;
+            }
+        }
+
+        private double parseNumber() {
+            int start = pos;
+            while (pos < input.length() && (Character.isDigit(input.charAt(pos)) || input.charAt(pos) == '.')) {
+                pos++;
+            }
+            if (pos < input.length() && (input.charAt(pos) == 'e' || input.charAt(pos) == 'E')) {
+                int exponent = pos + 1;
+                if (exponent < input.length() && (input.charAt(exponent) == '+' || input.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < input.length() && Character.isDigit(input.charAt(exponent))) {
+                    pos = exponent;
+                    while (pos < input.length() && Character.isDigit(input.charAt(pos))) {
+                        pos++;
+                    }
+                }
+            }
+            try {
+                return Double.parseDouble(input.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw new UnsupportedSyntax();
+            }
+        }
+
+        private String parseIdentifier() {
+            int start = pos;
+            while (pos < input.length() && Character.isLetterOrDigit(input.charAt(pos))) {
+                pos++;
+            }
+            return input.substring(start, pos);
+        }
+
+        private boolean startsPrimary() {
+            skipWhitespace();
+            if (pos >= input.length()) return false;
+            char c = input.charAt(pos);
+            return isNumberStart(c) || c == '(' || Character.isLetter(c);
+        }
+
+        private static boolean isNumberStart(char c) {
+            return Character.isDigit(c) || c == '.';
+        }
+
+        private boolean peek(char c) {
+            skipWhitespace();
+            return pos < input.length() && input.charAt(pos) == c;
+        }
+
+        private boolean consume(char c) {
+            if (peek(c)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) throw new UnsupportedSyntax();
+        }
+
+        private void skipWhitespace() {
+            while (pos < input.length() && Character.isWhitespace(input.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+
+    private static final class UnsupportedSyntax extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedSyntax() {
+            super(null, null, false, false);
+        }
+    }
+
+    abstract static class Node implements BatchFunction {
+        boolean isConstant() {
+            return false;
+        }
+
+        @Override
+        public final void evaluate(double[] x, double[] values, int length) {
+            Scratch scratch = Scratch.get();
+            int mark = scratch.mark();
+            try {
+                evaluate(x, values, length, scratch);
+            } finally {
+                scratch.reset(mark);
+            }
+        }
+
+        // Writes f(x[i]) into out[i]; out never aliases x
+        abstract void evaluate(double[] x, double[] out, int length, Scratch scratch);
+    }
+
+    // Per-thread stack of temporary arrays for the right-hand operands of
+    // binary nodes, so block evaluation does not allocate
+    static final class Scratch {
+        private static final ThreadLocal<Scratch> LOCAL = ThreadLocal.withInitial(Scratch::new);
+
+        // y and z of the point being evaluated; index 0 is unused
+        final double[] coordinates = new double[3];
+
+        private double[][] buffers = new double[8][];
+        private int top;
+
+        static Scratch get() {
+            return LOCAL.get();
+        }
+
+        double[] push(int length) {
+            if (top == buffers.length) {
+                buffers = Arrays.copyOf(buffers, top * 2);
+            }
+            double[] buffer = buffers[top];
+            if (buffer == null || buffer.length < length) {
+                buffer = new double[Math.max(length, BlockBuffers.SIZE)];
+                buffers[top] = buffer;
+            }
+            top++;
+            return buffer;
+        }
+
+        void pop() {
+            top--;
+        }
+
+        int mark() {
+            return top;
+        }
+
+        void reset(int mark) {
+            top = mark;
+        }
+    }
+
+    static final class Constant extends Node {
+        private final double value;
+
+        Constant(double value) {
+            this.value = value;
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return value;
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            Arrays.fill(out, 0, length, value);
+        }
+
+        @Override
+        boolean isConstant() {
+            return true;
+        }
+    }
+
+    static final class Variable extends Node {
+        static final Variable X = new Variable();
+
+        @Override
+        public double applyAsDouble(double x) {
+            return x;
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            System.arraycopy(x, 0, out, 0, length);
+        }
+    }
+
+    // y or z: one value for the whole block, taken from the scratch
+    static final class Coordinate extends Node {
+        static final Coordinate Y = new Coordinate(1);
+        static final Coordinate Z = new Coordinate(2);
+
+        private final int axis;
+
+        private Coordinate(int axis) {
+            this.axis = axis;
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return Scratch.get().coordinates[axis];
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            Arrays.fill(out, 0, length, scratch.coordinates[axis]);
+        }
+    }
+
+    // A compiled tree seen as a function of x, y and z
+    static final class Multivariate implements MultivariateFunction {
+        private final Node tree;
+
+        Multivariate(Node tree) {
+            this.tree = tree;
+        }
+
+        @Override
+        public double value(double x, double y, double z) {
+            Scratch scratch = Scratch.get();
+            scratch.coordinates[1] = y;
+            scratch.coordinates[2] = z;
+            return tree.applyAsDouble(x);
+        }
+
+        @Override
+        public void evaluate(double[] x, double y, double z, double[] values, int length) {
+            Scratch scratch = Scratch.get();
+            scratch.coordinates[1] = y;
+            scratch.coordinates[2] = z;
+            int mark = scratch.mark();
+            try {
+                tree.evaluate(x, values, length, scratch);
+            } finally {
+                scratch.reset(mark);
+            }
+        }
+    }
+
+    static final class Negate extends Node {
+        private final Node operand;
+
+        private Negate(Node operand) {
+            this.operand = operand;
+        }
+
+        static Node of(Node operand) {
+            return fold(new Negate(operand), operand);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return -operand.applyAsDouble(x);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            operand.evaluate(x, out, length, scratch);
+            for (int i = 0; i < length; i++) {
+                out[i] = -out[i];
+            }
+        }
+    }
+
+    static final class Add extends Node {
+        private final Node left;
+        private final Node right;
+
+        private Add(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        static Node of(Node left, Node right) {
+            return fold(new Add(left, right), left, right);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return left.applyAsDouble(x) + right.applyAsDouble(x);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            if (right.isConstant()) {
+                double c = right.applyAsDouble(0.0);
+                left.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] + c;
+                }
+            } else if (left.isConstant()) {
+                double c = left.applyAsDouble(0.0);
+                right.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = c + out[i];
+                }
+            } else {
+                left.evaluate(x, out, length, scratch);
+                double[] rhs = scratch.push(length);
+                right.evaluate(x, rhs, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] + rhs[i];
+                }
+                scratch.pop();
+            }
+        }
+    }
+
+    static final class Subtract extends Node {
+        private final Node left;
+        private final Node right;
+
+        private Subtract(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        static Node of(Node left, Node right) {
+            return fold(new Subtract(left, right), left, right);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return left.applyAsDouble(x) - right.applyAsDouble(x);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            if (right.isConstant()) {
+                double c = right.applyAsDouble(0.0);
+                left.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] - c;
+                }
+            } else if (left.isConstant()) {
+                double c = left.applyAsDouble(0.0);
+                right.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = c - out[i];
+                }
+            } else {
+                left.evaluate(x, out, length, scratch);
+                double[] rhs = scratch.push(length);
+                right.evaluate(x, rhs, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] - rhs[i];
+                }
+                scratch.pop();
+            }
+        }
+    }
+
+    static final class Multiply extends Node {
+        private final Node left;
+        private final Node right;
+
+        private Multiply(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        static Node of(Node left, Node right) {
+            return fold(new Multiply(left, right), left, right);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return left.applyAsDouble(x) * right.applyAsDouble(x);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            if (right.isConstant()) {
+                double c = right.applyAsDouble(0.0);
+                left.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] * c;
+                }
+            } else if (left.isConstant()) {
+                double c = left.applyAsDouble(0.0);
+                right.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = c * out[i];
+                }
+            } else {
+                left.evaluate(x, out, length, scratch);
+                double[] rhs = scratch.push(length);
+                right.evaluate(x, rhs, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] * rhs[i];
+                }
+                scratch.pop();
+            }
+        }
+    }
+
+    static final class Divide extends Node {
+        private final Node left;
+        private final Node right;
+
+        private Divide(Node left, Node right) {
+            this.left = left;
+            this.right = right;
+        }
+
+        static Node of(Node left, Node right) {
+            return fold(new Divide(left, right), left, right);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return left.applyAsDouble(x) / right.applyAsDouble(x);
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            if (right.isConstant()) {
+                double c = right.applyAsDouble(0.0);
+                left.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] / c;
+                }
+            } else if (left.isConstant()) {
+                double c = left.applyAsDouble(0.0);
+                right.evaluate(x, out, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = c / out[i];
+                }
+            } else {
+                left.evaluate(x, out, length, scratch);
+                double[] rhs = scratch.push(length);
+                right.evaluate(x, rhs, length, scratch);
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] / rhs[i];
+                }
+                scratch.pop();
+            }
+        }
+    }
+
+    static final class Power extends Node {
+        private final Node base;
+        private final Node exponent;
+
+        private Power(Node base, Node exponent) {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        static Node of(Node base, Node exponent) {
+            if (exponent.isConstant() && !base.isConstant()) {
+                double e = exponent.applyAsDouble(0.0);
+                if (e == Math.rint(e) && Math.abs(e) <= IntegerPower.MAX_EXPONENT) {
+                    return new IntegerPower(base, (int) e);
+                }
+            }
+            return fold(new Power(base, exponent), base, exponent);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return pow(base.applyAsDouble(x), exponent.applyAsDouble(x));
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            base.evaluate(x, out, length, scratch);
+            double[] exponents = scratch.push(length);
+            exponent.evaluate(x, exponents, length, scratch);
+            for (int i = 0; i < length; i++) {
+                out[i] = pow(out[i], exponents[i]);
+            }
+            scratch.pop();
+        }
+
+        // mXparser takes odd roots of negative numbers, e.g. (-8)^(1/3) = -2
+        static double pow(double b, double e) {
+            if (b < 0 && e != Math.rint(e)) {
+                double root = 1.0 / e;
+                if (Math.abs(root - Math.rint(root)) < 1e-12 && Math.rint(root) % 2 != 0) {
+                    return -Math.pow(-b, e);
+                }
+            }
+            return Math.pow(b, e);
+        }
+    }
+
+    static final class IntegerPower extends Node {
+        static final int MAX_EXPONENT = 64;
+
+        private final Node base;
+        private final int exponent;
+
+        IntegerPower(Node base, int exponent) {
+            this.base = base;
+            this.exponent = exponent;
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return power(base.applyAsDouble(x));
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            base.evaluate(x, out, length, scratch);
+            if (exponent == 2) {
+                for (int i = 0; i < length; i++) {
+                    out[i] = out[i] * out[i];
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    out[i] = power(out[i]);
+                }
+            }
+        }
+
+        private double power(double b) {
+            int n = Math.abs(exponent);
+            double result = 1.0;
+            while (n > 0) {
+                if ((n & 1) != 0) result *= b;
+                b *= b;
+                n >>= 1;
+            }
+            return exponent < 0 ? 1.0 / result : result;
+        }
+    }
+
+    static final class UnaryCall extends Node {
+        private final DoubleUnaryOperator op;
+        private final Node operand;
+
+        private UnaryCall(DoubleUnaryOperator op, Node operand) {
+            this.op = op;
+            this.operand = operand;
+        }
+
+        static Node of(DoubleUnaryOperator op, Node operand) {
+            return fold(new UnaryCall(op, operand), operand);
+        }
+
+        @Override
+        public double applyAsDouble(double x) {
+            return op.applyAsDouble(operand.applyAsDouble(x));
+        }
+
+        @Override
+        void evaluate(double[] x, double[] out, int length, Scratch scratch) {
+            operand.evaluate(x, out, length, scratch);
+            for (int i = 0; i < length; i++) {
+                out[i] = op.applyAsDouble(out[i]);
+            }
+        }
+    }
+
+    private static Node fold(Node node, Node... operands) {
+        for (Node operand : operands) {
+            if (!operand.isConstant()) return node;
+        }
+        return new Constant(node.applyAsDouble(0.0));
+    }
+}
@@ -0,0 +1,89 @@
+package com.wistrum.integrationapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+
+// Process-wide cache of compiled functions keyed by normalized expression
+// text, so each distinct expression is parsed and verified only once.
+// Compiled functions are thread-safe and can be shared between requests.
+public final class FunctionCache {
+    private static final long MAX_ENTRIES = 1_000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+
+    private static final Cache<String, BatchFunction> CACHE = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .recordStats()
+            .build();
+    // Keyed by dimension count and normalized expression, e.g. "2:x*y"
+    private static final Cache<String, MultivariateFunction> MULTIVARIATE = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .recordStats()
+            .build();
+
+    static {
+        IntegrationMetrics.monitor(CACHE, "expressions");
+        IntegrationMetrics.monitor(MULTIVARIATE, "multivariate_expressions");
+    }
+
+    private FunctionCache() {
+    }
+
+    public static BatchFunction get(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Function cannot be empty.");
+        }
+        String key = normalize(expression);
+        return CACHE.get(key, k -> IntegrationMetrics.parse().record(() -> ExpressionCompiler.compile(k)));
+    }
+
+    public static MultivariateFunction get(String expression, int dimensions) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Function cannot be empty.");
+        }
+        String key = dimensions + ":" + normalize(expression);
+        return MULTIVARIATE.get(key, k -> IntegrationMetrics.parse().record(
+                () -> ExpressionCompiler.compile(k.substring(k.indexOf(':') + 1), dimensions)));
+    }
+
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+
+    public static long size() {
+        return CACHE.estimatedSize();
+    }
+
+    // Drops whitespace except where it separates two identifiers or numbers,
+    // so "x + 1" and "x+1" share an entry without changing the meaning.
+    static String normalize(String expression) {
+        String trimmed = expression.strip();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(c);
+                continue;
+            }
+            int next = i + 1;
+            while (next < trimmed.length() && Character.isWhitespace(trimmed.charAt(next))) {
+                next++;
+            }
+            char before = normalized.charAt(normalized.length() - 1);
+            char after = trimmed.charAt(next);
+            if (isWordChar(before) && isWordChar(after)) {
+                normalized.append(' ');
+            }
+            i = next - 1;
+        }
+        return normalized.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '.' || c == '_';
+    }
+}
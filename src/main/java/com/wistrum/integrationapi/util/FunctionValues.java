@@ -0,0 +1,62 @@
+package com.wistrum.integrationapi.util;
+
+// Validity check for a block of function values, run once over the block
+// after batch evaluation instead of around every single evaluation.
+final class FunctionValues {
+    private static final int STABILITY_PROBES = 5;
+
+    private final double maxMagnitude;
+    private final String failure;
+
+    // failure is the message prefix; the offending abscissa is appended
+    FunctionValues(double maxMagnitude, String failure) {
+        this.maxMagnitude = maxMagnitude;
+        this.failure = failure;
+    }
+
+    // Probes the ends, middle and quarter points before a composite rule runs,
+    // reporting every extreme value at once. Uses the per-thread block
+    // buffers, so nothing is allocated unless the probe fails.
+    static void checkStability(BatchFunction f, double lowerBound, double upperBound, double maxMagnitude) {
+        BlockBuffers buffers = BlockBuffers.get();
+        double[] x = buffers.x;
+        double[] values = buffers.values;
+        x[0] = lowerBound;
+        x[1] = upperBound;
+        x[2] = (lowerBound + upperBound) / 2;
+        x[3] = lowerBound + (upperBound - lowerBound) / 4;
+        x[4] = upperBound - (upperBound - lowerBound) / 4;
+        try {
+            f.evaluate(x, values, STABILITY_PROBES);
+        } catch (RuntimeException e) {
+            throw new ArithmeticException("Function instability detected: " + e.getMessage());
+        }
+
+        StringBuilder reasons = null;
+        for (int i = 0; i < STABILITY_PROBES; i++) {
+            // NaN is left to the main loop's check
+            if (Double.isInfinite(values[i]) || Math.abs(values[i]) > maxMagnitude) {
+                reasons = reasons == null ? new StringBuilder() : reasons.append("; ");
+                reasons.append("Extreme value at x = ").append(x[i]);
+            }
+        }
+        if (reasons != null) {
+            throw new ArithmeticException("Function instability detected: " + reasons);
+        }
+    }
+
+    void check(double[] x, double[] values, int length) {
+        // NaN fails the comparison, so one branch-free pass covers NaN,
+        // infinities and oversized values
+        boolean valid = true;
+        for (int i = 0; i < length; i++) {
+            valid &= Math.abs(values[i]) <= maxMagnitude;
+        }
+        if (valid) return;
+        for (int i = 0; i < length; i++) {
+            if (!(Math.abs(values[i]) <= maxMagnitude)) {
+                throw new ArithmeticException(failure + x[i]);
+            }
+        }
+    }
+}
@@ -1,87 +1,110 @@
 package com.wistrum.integrationapi.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.wistrum.integrationapi.model.IntegrationRequest;
-import org.mariuszgromada.math.mxparser.Function;
-
-import java.util.Arrays;
+import io.micrometer.core.instrument.Timer;
 
 public class GaussLegendreQuadrature {
-    private static final double EPSILON = 1e-10;
+    private static final double EPSILON = 1e-15;
     private static final int MAX_ITERATIONS = 100;
-    
-    private final Function f;
+    private static final long MAX_CACHED_NODES = 2_000_000; // ~32 MB of nodes and weights
+    private static final int PRELOADED_ORDER = 64;
+
+    // Node/weight tables are computed once per order and shared
+    private static final Cache<Integer, QuadratureRule> RULES = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_NODES)
+            .weigher((Integer order, QuadratureRule rule) -> rule.size())
+            .recordStats()
+            .build();
+    private static final Timer NODES = IntegrationMetrics.nodes("gauss_legendre");
+
+    static {
+        IntegrationMetrics.monitor(RULES, "gauss_legendre_rules");
+    }
+
+    private final BatchFunction f;
     private final double lowerBound;
     private final double upperBound;
     private final int intervals;
 
     public GaussLegendreQuadrature(IntegrationRequest request) {
-        this.f = new Function("f(x) = " + request.getFunction());
+        this.f = FunctionCache.get(request.getFunction());
         this.lowerBound = request.getLowerBound();
         this.upperBound = request.getUpperBound();
         this.intervals = request.getIntervals();
     }
 
     public double integrate() {
-        double[] nodes = findLegendreNodes(intervals);
-        double[] weights = computeWeights(nodes);
-        
-        double integral = 0.0;
-        double scale = (upperBound - lowerBound) / 2.0;
-        double shift = (upperBound + lowerBound) / 2.0;
-        
-        for (int i = 0; i < intervals; i++) {
-            double x_mapped = scale * nodes[i] + shift;
-            integral += weights[i] * f.calculate(x_mapped);
+        return rule(intervals).integrate(f, lowerBound, upperBound, null);
+    }
+
+    public static QuadratureRule rule(int n) {
+        if (n < 1) throw new IllegalArgumentException("Gauss-Legendre quadrature requires at least one node.");
+        return RULES.get(n, order -> NODES.record(() -> computeRule(order)));
+    }
+
+    static boolean hasRule(int n) {
+        return RULES.getIfPresent(n) != null;
+    }
+
+    // Fills the table cache for the orders most requests use
+    public static void preload() {
+        for (int n = 1; n <= PRELOADED_ORDER; n++) {
+            rule(n);
         }
-        return scale * integral;
     }
 
-    private static double[] findLegendreNodes(int n) {
+    // Nodes are symmetric about zero, so only the positive half is solved for
+    // by Newton iteration and then mirrored.
+    static QuadratureRule computeRule(int n) {
         double[] nodes = new double[n];
-        
-        for (int i = 0; i < n; i++) {
-            double x = Math.cos(Math.PI * (i + 0.75) / (n + 0.5)); // Good initial estimate
+        double[] weights = new double[n];
+
+        for (int i = 0; i < (n + 1) / 2; i++) {
+            Cancellation.check();
+            // Tricomi's asymptotic estimate, accurate enough for 2-3 Newton steps
+            double theta = Math.PI * (4 * i + 3) / (4 * n + 2);
+            double x = (1 - (n - 1) / (8.0 * n * n * n)) * Math.cos(theta);
+            double dp = 0.0;
 
             for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
-                double p = legendrePolynomial(n, x);
-                double dp = legendreDerivative(n, x);
-                
-                if (Math.abs(dp) < EPSILON) break;
-                
-                double dx = p / dp;
+                double[] p = legendrePair(n, x);
+                dp = n * (x * p[0] - p[1]) / (x * x - 1);
+                double dx = p[0] / dp;
                 x -= dx;
                 if (Math.abs(dx) < EPSILON) break;
             }
-            nodes[i] = x;
-        }
-        Arrays.sort(nodes);
-        return nodes;
-    }
+            if (n % 2 == 1 && i == n / 2) x = 0.0;
+            dp = legendreDerivative(n, x);
+            double w = 2.0 / ((1 - x * x) * dp * dp);
 
-    private static double[] computeWeights(double[] nodes) {
-        int n = nodes.length;
-        double[] weights = new double[n];
-        for (int i = 0; i < n; i++) {
-            double x = nodes[i];
-            double p_prime = legendreDerivative(n, x);
-            weights[i] = 2.0 / ((1 - x * x) * p_prime * p_prime);
+            nodes[i] = -x;
+            nodes[n - 1 - i] = x;
+            weights[i] = w;
+            weights[n - 1 - i] = w;
         }
-        return weights;
+        return new QuadratureRule(nodes, weights);
     }
 
     public static double legendrePolynomial(int n, double x) {
-        if (n == 0) return 1.0;
-        if (n == 1) return x;
+        return legendrePair(n, x)[0];
+    }
+
+    // P_n(x) and P_{n-1}(x) from a single pass of the three-term recurrence
+    private static double[] legendrePair(int n, double x) {
+        if (n == 0) return new double[] {1.0, 0.0};
         double p0 = 1.0, p1 = x, p2;
         for (int k = 2; k <= n; k++) {
             p2 = ((2.0 * k - 1) * x * p1 - (k - 1) * p0) / k;
             p0 = p1;
             p1 = p2;
         }
-        return p1;
+        return new double[] {p1, p0};
     }
 
     private static double legendreDerivative(int n, double x) {
-        return n * (x * legendrePolynomial(n, x) - legendrePolynomial(n - 1, x)) / (x * x - 1);
+        double[] p = legendrePair(n, x);
+        return n * (x * p[0] - p[1]) / (x * x - 1);
     }
 }
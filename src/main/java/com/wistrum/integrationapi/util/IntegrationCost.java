@@ -0,0 +1,79 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.BulkIntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.MultipleIntegrationRequest;
+
+import java.util.List;
+
+// Rough work estimates used to charge rate-limit tokens by work instead of by
+// call. One token covers 100k function evaluations. Every call costs at least
+// MIN_TOKENS_PER_CALL, which already covers a million evaluations, so with the
+// default capacity of 50 cheap calls are still limited to 5 per minute.
+public final class IntegrationCost {
+    public static final long EVALUATIONS_PER_TOKEN = 100_000;
+    public static final long MIN_TOKENS_PER_CALL = 10;
+
+    private IntegrationCost() {
+    }
+
+    public static long estimateEvaluations(IntegrationRequest request) {
+        if (request == null) return 0;
+        long intervals = Math.max(request.getIntervals(), 1);
+        IntegrationMethod method = request.getIntegrationMethod();
+        if (method == null) return intervals;
+        switch (method) {
+            case TRAPEZOIDAL:
+            case SIMPSON:
+            case ROMBERG:
+                return intervals + 1;
+            case DOUBLE_EXPONENTIAL:
+                return DoubleExponentialQuadrature.MAX_EVALUATIONS;
+            case AUTO:
+                return request.getMaxEvaluations() != null
+                        ? AutoIntegrator.MAX_EVALUATIONS - AutoIntegrator.DEFAULT_MAX_EVALUATIONS
+                                + request.getMaxEvaluations()
+                        : AutoIntegrator.MAX_EVALUATIONS;
+            case ADAPTIVE_QUADRATURE:
+                return request.getMaxEvaluations() != null
+                        ? request.getMaxEvaluations() : AdaptiveQuadrature.DEFAULT_MAX_EVALUATIONS;
+            default:
+                return intervals;
+        }
+    }
+
+    public static long estimateEvaluations(MultipleIntegrationRequest request) {
+        if (request == null || request.getMethod() == null) return 0;
+        return CubatureIntegrator.points(request);
+    }
+
+    public static long estimateEvaluations(BulkIntegrationRequest request) {
+        if (request == null) return 0;
+        return BulkIntegrator.estimateEvaluations(request);
+    }
+
+    public static long tokens(BulkIntegrationRequest request) {
+        return toTokens(estimateEvaluations(request));
+    }
+
+    public static long tokens(MultipleIntegrationRequest request) {
+        return toTokens(estimateEvaluations(request));
+    }
+
+    public static long tokens(IntegrationRequest request) {
+        return toTokens(estimateEvaluations(request));
+    }
+
+    public static long tokens(List<IntegrationRequest> requests) {
+        long evaluations = 0;
+        for (IntegrationRequest request : requests) {
+            evaluations += estimateEvaluations(request);
+        }
+        return toTokens(evaluations);
+    }
+
+    private static long toTokens(long evaluations) {
+        return Math.max(MIN_TOKENS_PER_CALL, (evaluations + EVALUATIONS_PER_TOKEN - 1) / EVALUATIONS_PER_TOKEN);
+    }
+}
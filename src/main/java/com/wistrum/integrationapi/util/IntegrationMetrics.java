@@ -0,0 +1,93 @@
+package com.wistrum.integrationapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+// Meters for the integration hot paths. The util classes are static, so they
+// record to Micrometer's global registry; Spring Boot adds its Prometheus
+// registry to the global one, and without it (e.g. in unit tests) every
+// meter is a no-op.
+public final class IntegrationMetrics {
+    private static final MeterRegistry REGISTRY = Metrics.globalRegistry;
+
+    private static final Timer PARSE = Timer.builder("integration.parse")
+            .description("Parsing and compiling an expression (cache misses only)")
+            .register(REGISTRY);
+    private static final Timer SINGULARITY_ANALYSIS = Timer.builder("integration.singularity.analysis")
+            .description("Symja denominator root solving (cache misses only)")
+            .register(REGISTRY);
+    private static final Counter TIMEOUTS = Counter.builder("integration.timeouts")
+            .description("Integrations cancelled at the time limit")
+            .register(REGISTRY);
+
+    private IntegrationMetrics() {
+    }
+
+    static Timer parse() {
+        return PARSE;
+    }
+
+    static Timer singularityAnalysis() {
+        return SINGULARITY_ANALYSIS;
+    }
+
+    // Building a quadrature node table (cache misses only)
+    static Timer nodes(String rule) {
+        return Timer.builder("integration.nodes")
+                .description("Quadrature node and weight table computation")
+                .tag("rule", rule)
+                .register(REGISTRY);
+    }
+
+    // Time spent inside an integrator, excluding validation and queueing
+    // method is an IntegrationMethod or CubatureMethod
+    static Timer evaluation(Enum<?> method) {
+        return Timer.builder("integration.evaluation")
+                .description("Integrator run time")
+                .tag("method", String.valueOf(method))
+                .register(REGISTRY);
+    }
+
+    static void functionEvaluations(Enum<?> method, long count) {
+        Counter.builder("integration.function.evaluations")
+                .description("Integrand evaluations")
+                .tag("method", String.valueOf(method))
+                .register(REGISTRY)
+                .increment(count);
+    }
+
+    // Whole request as seen by the caller: validation, queueing and the run
+    static void request(Enum<?> method, String outcome, Timer.Sample sample) {
+        sample.stop(Timer.builder("integration.requests")
+                .description("Integration requests by outcome")
+                .tag("method", String.valueOf(method))
+                .tag("outcome", outcome)
+                .register(REGISTRY));
+    }
+
+    static Timer.Sample start() {
+        return Timer.start(REGISTRY);
+    }
+
+    static void timeouts(int count) {
+        TIMEOUTS.increment(count);
+    }
+
+    // reason is e.g. "rate_limit", "too_large" or "capacity"
+    public static void rejected(String reason) {
+        Counter.builder("integration.rejections")
+                .description("Requests turned away before integrating")
+                .tag("reason", reason)
+                .register(REGISTRY)
+                .increment();
+    }
+
+    static void monitor(Cache<?, ?> cache, String name) {
+        CaffeineCacheMetrics.monitor(REGISTRY, cache, name);
+    }
+}
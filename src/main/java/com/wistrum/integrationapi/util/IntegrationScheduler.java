@@ -0,0 +1,158 @@
+package com.wistrum.integrationapi.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+// Shared, bounded pool that runs integration work. A fixed number of worker
+// threads drain a bounded queue; when both are full, submissions are rejected
+// with RejectedExecutionException (503) instead of piling up. Parallel
+// requests borrow idle workers from the same pool (forEach), so they stay
+// within its bound too.
+public class IntegrationScheduler {
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+    private final ThreadPoolExecutor executor;
+
+    public IntegrationScheduler(int poolSize, int queueCapacity) {
+        if (poolSize < 1) {
+            throw new IllegalArgumentException("Scheduler pool size must be at least 1");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("Scheduler queue capacity cannot be negative");
+        }
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity),
+                new WorkerFactory(this),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static IntegrationScheduler shared() {
+        return Shared.INSTANCE;
+    }
+
+    // The scheduler whose worker is running the caller; the shared one for
+    // callers outside any scheduler (tests, benchmarks)
+    static IntegrationScheduler current() {
+        Thread thread = Thread.currentThread();
+        return thread instanceof Worker ? ((Worker) thread).scheduler : shared();
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException(
+                    "Integration capacity exhausted - Please retry shortly.", e);
+        }
+    }
+
+    // Runs body for every index in [0, count) on the calling thread, helped by
+    // workers that are idle right now. Helpers are only borrowed, never queued
+    // behind other work: any that have not started by the time the caller
+    // has claimed every index are cancelled, so a parallel request never
+    // takes more than the free part of the pool nor waits on its own queue.
+    // The first failure is rethrown once every claimed index has finished.
+    void forEach(int count, IntConsumer body) {
+        AtomicInteger next = new AtomicInteger();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        CountDownLatch finished = new CountDownLatch(count);
+        Runnable drain = () -> {
+            for (int i = next.getAndIncrement(); i < count; i = next.getAndIncrement()) {
+                try {
+                    if (failure.get() == null) body.accept(i);
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    finished.countDown();
+                }
+            }
+        };
+
+        int helpers = Math.min(count - 1, idleWorkers());
+        List<Future<?>> borrowed = new ArrayList<>(Math.max(helpers, 0));
+        for (int h = 0; h < helpers; h++) {
+            try {
+                borrowed.add(executor.submit(drain));
+            } catch (RejectedExecutionException e) {
+                break; // the caller does the rest itself
+            }
+        }
+        drain.run();
+        borrowed.forEach(helper -> helper.cancel(false));
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            // Helpers poll the caller's interrupt flag and stop
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Integration was cancelled");
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        if (e != null) throw new IllegalStateException(e);
+    }
+
+    private int idleWorkers() {
+        return executor.getQueue().isEmpty() ? executor.getMaximumPoolSize() - executor.getActiveCount() : 0;
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static final class Shared {
+        static final IntegrationScheduler INSTANCE = new IntegrationScheduler(
+                Runtime.getRuntime().availableProcessors(), DEFAULT_QUEUE_CAPACITY);
+    }
+
+    private static final class Worker extends Thread {
+        final IntegrationScheduler scheduler;
+
+        Worker(Runnable task, String name, IntegrationScheduler scheduler) {
+            super(task, name);
+            this.scheduler = scheduler;
+        }
+    }
+
+    private static final class WorkerFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final IntegrationScheduler scheduler;
+
+        WorkerFactory(IntegrationScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        @Override
+        public Thread newThread(Runnable task) {
+            Thread thread = new Worker(task, "integration-" + counter.incrementAndGet(), scheduler);
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,23 +1,36 @@
 package com.wistrum.integrationapi.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.wistrum.integrationapi.model.IntegrationRequest;
-import org.mariuszgromada.math.mxparser.Function;
-import java.util.Arrays;
+import io.micrometer.core.instrument.Timer;
 
 public class LobattoQuadrature {
-    private static final double EPSILON = 1e-10;
-    private static final int MAX_ITERATIONS = 1000;
-    
-    private final Function f;
+    private static final double EPSILON = 1e-15;
+    private static final int MAX_ITERATIONS = 100;
+    private static final long MAX_CACHED_NODES = 2_000_000;
+    private static final FunctionValues VALUES =
+            new FunctionValues(Double.MAX_VALUE, "Function evaluation failed at x=");
+
+    // Node/weight tables are computed once per order and shared
+    private static final Cache<Integer, QuadratureRule> RULES = Caffeine.newBuilder()
+            .maximumWeight(MAX_CACHED_NODES)
+            .weigher((Integer order, QuadratureRule rule) -> rule.size())
+            .recordStats()
+            .build();
+    private static final Timer NODES = IntegrationMetrics.nodes("lobatto");
+
+    static {
+        IntegrationMetrics.monitor(RULES, "lobatto_rules");
+    }
+
+    private final BatchFunction f;
     private final double lowerBound;
     private final double upperBound;
     private final int intervals;
 
     public LobattoQuadrature(IntegrationRequest request) {
-        this.f = new Function("f(x) = " + request.getFunction());
-        if (!f.checkSyntax()) {
-            throw new IllegalArgumentException("Invalid function syntax: " + request.getFunction());
-        }
+        this.f = FunctionCache.get(request.getFunction());
         this.lowerBound = request.getLowerBound();
         this.upperBound = request.getUpperBound();
         this.intervals = request.getIntervals();
@@ -25,79 +38,69 @@ public class LobattoQuadrature {
 
 
     public double integrate() {
-        if (intervals < 2) throw new IllegalArgumentException(
+        return rule(intervals).integrate(f, lowerBound, upperBound, VALUES);
+    }
+
+    public static QuadratureRule rule(int n) {
+        if (n < 2) throw new IllegalArgumentException(
         		"Lobatto quadrature requires at least two nodes.");
-        
-        double[] nodes = findLobattoNodes(intervals);
-        double[] weights = computeWeights(nodes);
-        
-        double integral = 0.0;
-        for (int i = 0; i < intervals; i++) {
-            double x_mapped = (upperBound - lowerBound) / 2 * nodes[i] 
-            		+ (lowerBound + upperBound) / 2;
-            double fVal = f.calculate(x_mapped);
-            if (Double.isNaN(fVal) || Double.isInfinite(fVal)) {
-                throw new ArithmeticException("Function evaluation failed at x=" + x_mapped);
-            }
-            integral += weights[i] * fVal;
-        }
-        return (upperBound - lowerBound) / 2 * integral;
+        return RULES.get(n, order -> NODES.record(() -> computeRule(order)));
     }
 
-    private static double[] findLobattoNodes(int n) {
+    static boolean hasRule(int n) {
+        return RULES.getIfPresent(n) != null;
+    }
+
+    // The n-point rule uses both endpoints plus the roots of P'_{n-1}. The
+    // nodes are symmetric about zero, so only the negative half is solved for
+    // and mirrored.
+    static QuadratureRule computeRule(int n) {
+        int m = n - 1;
         double[] nodes = new double[n];
+        double[] weights = new double[n];
+        double endpointWeight = 2.0 / (n * (double) m);
+
         nodes[0] = -1.0;
-        nodes[n - 1] = 1.0;
-        
-        for (int i = 1; i < n - 1; i++) {
-            double x = Math.cos(Math.PI * (i + 0.5) / (n - 1));
-            for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
-                double p = legendrePolynomial(n - 1, x);
-                double dp = legendreDerivative(n - 1, x);
-                
-                if (Math.abs(dp) < EPSILON) break;
-                
-                double dx = p / dp;
-                if (Math.abs(dx) < EPSILON) break;
-                x -= dx;
-            }
-            nodes[i] = x;
-        }
-        return nodes;
-    }
+        nodes[m] = 1.0;
+        weights[0] = endpointWeight;
+        weights[m] = endpointWeight;
 
+        for (int i = 1; i <= m / 2; i++) {
+            Cancellation.check();
+            double x = -Math.cos(Math.PI * i / m); // Chebyshev-Gauss-Lobatto estimate
+            if (2 * i == m) {
+                x = 0.0; // P'_{m} is odd for even m, so zero is an exact root
+            } else {
+                for (int iter = 0; iter < MAX_ITERATIONS; iter++) {
+                    double[] p = legendrePair(m, x);
+                    double dp = m * (x * p[0] - p[1]) / (x * x - 1);
+                    // P'' from Legendre's equation (1 - x^2) P'' = 2x P' - m(m+1) P
+                    double d2p = (2 * x * dp - m * (m + 1.0) * p[0]) / (1 - x * x);
+                    double dx = dp / d2p;
+                    x -= dx;
+                    if (Math.abs(dx) < EPSILON) break;
+                }
+            }
+            double p = legendrePair(m, x)[0];
+            double w = endpointWeight / (p * p);
 
-    private static double[] computeWeights(double[] nodes) {
-        int n = nodes.length;
-        double[] weights = new double[n];
-        for (int i = 0; i < n; i++) {
-            double x = nodes[i];
-            double p_prime = legendreDerivative(n - 1, x);
-            if (Math.abs(p_prime) < EPSILON) throw new ArithmeticException(
-            		"Zero derivative encountered in weight computation");
-            weights[i] = 2.0 / ((1 - x * x + EPSILON) * p_prime * p_prime);
+            nodes[i] = x;
+            nodes[m - i] = -x;
+            weights[i] = w;
+            weights[m - i] = w;
         }
-        return weights;
+        return new QuadratureRule(nodes, weights);
     }
-    
 
-    private static double legendrePolynomial(int n, double x) {
-        if (n == 0) return 1.0;
-        if (n == 1) return x;
+    // P_n(x) and P_{n-1}(x) from a single pass of the three-term recurrence
+    private static double[] legendrePair(int n, double x) {
+        if (n == 0) return new double[] {1.0, 0.0};
         double p0 = 1.0, p1 = x, p2;
         for (int k = 2; k <= n; k++) {
             p2 = ((2.0 * k - 1) * x * p1 - (k - 1) * p0) / k;
             p0 = p1;
             p1 = p2;
         }
-        return p1;
-    }
-
-    private static double legendreDerivative(int n, double x) {
-        if (Math.abs(x) == 1.0) {
-            return 0.5 * n * (n + 1) * (x == 1 ? 1 : -1);
-        }
-        return n * (x * legendrePolynomial(n, x) - legendrePolynomial(n - 1, x)) 
-        		/ (x * x - 1 + EPSILON);
+        return new double[] {p1, p0};
     }
 }
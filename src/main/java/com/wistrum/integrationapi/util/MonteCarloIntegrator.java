@@ -0,0 +1,205 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import java.util.SplittableRandom;
+import java.util.function.DoubleUnaryOperator;
+
+// Plain and quasi Monte Carlo integration. Samples are drawn in a fixed
+// number of blocks, each with its own stream split from the seeded root
+// generator in block order, so results depend only on the seed and not on
+// how many threads ran the blocks.
+//
+// The quasi variant uses the base-2 van der Corput sequence (the 1-D Sobol
+// and Halton sequence) under independent random shifts, one per block; the
+// spread of the shifted estimates gives the standard error.
+//
+// CubatureIntegrator samples boxes with the same blocks and pooling.
+public class MonteCarloIntegrator {
+    static final long DEFAULT_SEED = 0x5DEECE66DL;
+    static final int BLOCKS = 64;
+    static final int CHECK_INTERVAL = 1_024;
+    private static final int MAX_SAMPLES = 10_000_000;
+    private static final double MAX_FUNCTION_VALUE = 1e150;
+
+    private final IntegrationRequest request;
+    private final DoubleUnaryOperator f;
+    private final boolean quasi;
+
+    // Null when too few samples were taken to estimate it
+    private Double errorEstimate;
+    private long evaluations;
+
+    public MonteCarloIntegrator(IntegrationRequest request, boolean quasi) {
+        this.request = request;
+        this.f = FunctionCache.get(request.getFunction());
+        this.quasi = quasi;
+    }
+
+    public double integrate() {
+        validateInputs();
+
+        double lowerBound = request.getLowerBound();
+        double width = request.getUpperBound() - lowerBound;
+        int samples = request.getIntervals();
+        long deadline = request.getTimeBudgetMs() != null
+                ? System.nanoTime() + request.getTimeBudgetMs() * 1_000_000L : Long.MAX_VALUE;
+
+        SplittableRandom[] streams = streams(request.getSeed());
+        Thread owner = Thread.currentThread();
+        Moments[] blocks = new Moments[BLOCKS];
+        CompositeSum.forEachChunk(BLOCKS, b -> {
+            SplittableRandom random = streams[b];
+            double shift = random.nextDouble();
+            Moments moments = new Moments();
+            for (int i = 0; i < blockSamples(samples, b); i++) {
+                if (i % CHECK_INTERVAL == 0 && i > 0) {
+                    Cancellation.check(owner);
+                    if (System.nanoTime() > deadline) break;
+                }
+                double u = quasi ? shifted(vanDerCorput(i + 1L), shift) : random.nextDouble();
+                moments.add(evaluateFunctionSafely(lowerBound + u * width));
+            }
+            blocks[b] = moments;
+        }, request.isParallel());
+
+        Estimate estimate = quasi ? poolShifts(blocks) : pool(blocks);
+        evaluations = estimate.samples;
+        errorEstimate = estimate.standardError != null ? width * estimate.standardError : null;
+        return width * estimate.mean;
+    }
+
+    public Double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    // One stream per block, split in block order from the seeded root
+    static SplittableRandom[] streams(Long seed) {
+        SplittableRandom root = new SplittableRandom(seed != null ? seed : DEFAULT_SEED);
+        SplittableRandom[] streams = new SplittableRandom[BLOCKS];
+        for (int b = 0; b < BLOCKS; b++) {
+            streams[b] = root.split();
+        }
+        return streams;
+    }
+
+    static int blockSamples(int samples, int block) {
+        return samples / BLOCKS + (block < samples % BLOCKS ? 1 : 0);
+    }
+
+    // Welford's running mean and sum of squared deviations of one block
+    static final class Moments {
+        long n;
+        double mean;
+        double m2;
+
+        void add(double value) {
+            n++;
+            double delta = value - mean;
+            mean += delta / n;
+            m2 += delta * (value - mean);
+        }
+    }
+
+    // Mean of the integrand over the domain and its standard error, which is
+    // null when too few samples were taken to estimate it
+    static final class Estimate {
+        final double mean;
+        final Double standardError;
+        final long samples;
+
+        Estimate(double mean, Double standardError, long samples) {
+            this.mean = mean;
+            this.standardError = standardError;
+            this.samples = samples;
+        }
+    }
+
+    // Pools the blocks' statistics (Chan et al.) into one sample mean
+    static Estimate pool(Moments[] blocks) {
+        long n = 0;
+        double mean = 0.0;
+        double m2 = 0.0;
+        for (Moments block : blocks) {
+            if (block.n == 0) continue;
+            long combined = n + block.n;
+            double delta = block.mean - mean;
+            mean += delta * block.n / combined;
+            m2 += block.m2 + delta * delta * n * block.n / combined;
+            n = combined;
+        }
+        return new Estimate(mean, n > 1 ? Math.sqrt(m2 / (n - 1) / n) : null, n);
+    }
+
+    // Each shift is an independent randomized estimate; their spread is the error
+    static Estimate poolShifts(Moments[] blocks) {
+        int shifts = 0;
+        long n = 0;
+        double mean = 0.0;
+        double m2 = 0.0;
+        for (Moments block : blocks) {
+            if (block.n == 0) continue;
+            shifts++;
+            n += block.n;
+            double delta = block.mean - mean;
+            mean += delta / shifts;
+            m2 += delta * (block.mean - mean);
+        }
+        return new Estimate(mean, shifts > 1 ? Math.sqrt(m2 / (shifts - 1) / shifts) : null, n);
+    }
+
+    static double vanDerCorput(long index) {
+        return radicalInverse(index, 2);
+    }
+
+    static double radicalInverse(long index, int base) {
+        double inverse = 1.0 / base;
+        double factor = inverse;
+        double result = 0.0;
+        while (index > 0) {
+            result += (index % base) * factor;
+            index /= base;
+            factor *= inverse;
+        }
+        return result;
+    }
+
+    static double shifted(double point, double shift) {
+        double u = point + shift;
+        return u >= 1.0 ? u - 1.0 : u;
+    }
+
+    private void validateInputs() {
+        double lowerBound = request.getLowerBound();
+        double upperBound = request.getUpperBound();
+        int samples = request.getIntervals();
+
+        if (Double.isNaN(lowerBound) || Double.isNaN(upperBound)) {
+            throw new IllegalArgumentException("Integration bounds cannot be NaN");
+        }
+        if (lowerBound >= upperBound) {
+            throw new IllegalArgumentException("Lower bound must be less than upper bound");
+        }
+        if (samples < 2) {
+            throw new IllegalArgumentException("Monte Carlo integration requires at least two samples");
+        }
+        if (samples > MAX_SAMPLES) {
+            throw new IllegalArgumentException("Maximum " + MAX_SAMPLES + " samples allowed");
+        }
+        if (request.getTimeBudgetMs() != null && request.getTimeBudgetMs() <= 0) {
+            throw new IllegalArgumentException("Time budget must be positive");
+        }
+    }
+
+    private double evaluateFunctionSafely(double x) {
+        double result = f.applyAsDouble(x);
+        if (Double.isNaN(result) || Double.isInfinite(result)
+                || Math.abs(result) > MAX_FUNCTION_VALUE) {
+            throw new ArithmeticException("Function may be discontinuous near x = " + x);
+        }
+        return result;
+    }
+}
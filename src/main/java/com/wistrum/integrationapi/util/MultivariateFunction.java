@@ -0,0 +1,12 @@
+package com.wistrum.integrationapi.util;
+
+// A function of x, y and z (unused trailing variables are ignored). Blocks
+// vary x with y and z held fixed, which is how the product rules sweep
+// their grids.
+public interface MultivariateFunction {
+
+    double value(double x, double y, double z);
+
+    // values[i] = f(x[i], y, z) for 0 <= i < length; x and values must be distinct
+    void evaluate(double[] x, double y, double z, double[] values, int length);
+}
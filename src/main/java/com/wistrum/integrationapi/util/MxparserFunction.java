@@ -0,0 +1,33 @@
+package com.wistrum.integrationapi.util;
+
+import org.mariuszgromada.math.mxparser.Function;
+
+// Fallback for expressions the ExpressionCompiler cannot handle. mXparser
+// Functions are not thread-safe, so each thread gets its own instance.
+final class MxparserFunction implements BatchFunction {
+    private final String expression;
+    private final ThreadLocal<Function> function;
+
+    MxparserFunction(String expression) {
+        this.expression = expression;
+        this.function = ThreadLocal.withInitial(() -> new Function("f(x) = " + expression));
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        return function.get().calculate(x);
+    }
+
+    @Override
+    public void evaluate(double[] x, double[] values, int length) {
+        Function local = function.get();
+        for (int i = 0; i < length; i++) {
+            values[i] = local.calculate(x[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
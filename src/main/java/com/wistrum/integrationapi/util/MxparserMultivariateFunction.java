@@ -0,0 +1,37 @@
+package com.wistrum.integrationapi.util;
+
+import org.mariuszgromada.math.mxparser.Function;
+
+// Fallback for multivariate expressions the ExpressionCompiler cannot
+// handle; one mXparser Function per thread, as in MxparserFunction.
+final class MxparserMultivariateFunction implements MultivariateFunction {
+    private final String expression;
+    private final boolean threeDimensional;
+    private final ThreadLocal<Function> function;
+
+    MxparserMultivariateFunction(String expression, int dimensions) {
+        this.expression = expression;
+        this.threeDimensional = dimensions == 3;
+        String arguments = threeDimensional ? "x,y,z" : "x,y";
+        this.function = ThreadLocal.withInitial(() -> new Function("f(" + arguments + ") = " + expression));
+    }
+
+    @Override
+    public double value(double x, double y, double z) {
+        Function local = function.get();
+        return threeDimensional ? local.calculate(x, y, z) : local.calculate(x, y);
+    }
+
+    @Override
+    public void evaluate(double[] x, double y, double z, double[] values, int length) {
+        Function local = function.get();
+        for (int i = 0; i < length; i++) {
+            values[i] = threeDimensional ? local.calculate(x[i], y, z) : local.calculate(x[i], y);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -1,30 +1,466 @@
 package com.wistrum.integrationapi.util;
 
+import com.wistrum.integrationapi.model.BatchItemResult;
+import com.wistrum.integrationapi.model.BulkIntegrationRequest;
+import com.wistrum.integrationapi.model.CubatureMethod;
 import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationProgress;
 import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import com.wistrum.integrationapi.model.MultipleIntegrationRequest;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalDouble;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.lang.management.ManagementFactory;
 import java.lang.management.MemoryMXBean;
 import java.lang.management.MemoryUsage;
-import org.mariuszgromada.math.mxparser.Function;
+import java.lang.management.ThreadMXBean;
+import io.micrometer.core.instrument.Timer;
 import org.mariuszgromada.math.mxparser.License;
-import org.matheclipse.core.eval.ExprEvaluator;
-import org.matheclipse.core.interfaces.IExpr;
-import org.matheclipse.core.expression.AST;
 
 
 public class NumericalIntegrator {
 	static {
         License.iConfirmNonCommercialUse("wistrum");
     }
-    private static final long TIME_LIMIT_MS = 20000; // 20-second timeout
+    public static final long TIME_LIMIT_MS = 20000; // 20-second timeout
     private static final long MEMORY_LIMIT_MB = 100; // Max 100MB usage
-    
+    private static final int MAX_BATCH_SIZE = 1_000;
+    private static final int MAX_REFINEMENT_LEVELS = 10;
+
+    // Fires flight deadlines. Each timer is cancelled (and removed) as soon
+    // as its flight completes, so finished requests are not kept alive.
+    private static final ScheduledThreadPoolExecutor DEADLINES = deadlineTimer();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final IntegrationScheduler scheduler;
+    private final AdmissionController admission;
+
+    public NumericalIntegrator() {
+        this(IntegrationScheduler.shared());
+    }
+
+    public NumericalIntegrator(IntegrationScheduler scheduler) {
+        this(scheduler, AdmissionController.shared());
+    }
+
+    public NumericalIntegrator(IntegrationScheduler scheduler, AdmissionController admission) {
+        this.scheduler = scheduler;
+        this.admission = admission;
+    }
+
     public double integrate(IntegrationRequest request) throws Exception {
-    	
+        return integrateDetailed(request).getResult();
+    }
+
+    // Same as integrate, also reporting the error estimate and evaluation
+    // count for methods that produce them
+    //
+    // Identical requests are answered from the result cache; while one is
+    // still running, the others wait for it rather than integrating again.
+    public IntegrationResult integrateDetailed(IntegrationRequest request) throws Exception {
+        IntegrationMethod method = request != null ? request.getIntegrationMethod() : null;
+        Timer.Sample sample = IntegrationMetrics.start();
+        String outcome = "error";
+        try {
+            ResultCache.Key key = ResultCache.key(request);
+            CompletableFuture<IntegrationResult> flight = key != null ? ResultCache.getIfPresent(key) : null;
+            IntegrationResult result = awaitFlight(flight != null ? flight : admitFlight(request, key));
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            IntegrationMetrics.timeouts(1);
+            throw e;
+        } catch (RejectedExecutionException e) {
+            outcome = "rejected";
+            IntegrationMetrics.rejected("capacity");
+            throw e;
+        } catch (ArithmeticException e) {
+            outcome = "arithmetic_error";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+            throw e;
+        } finally {
+            IntegrationMetrics.request(method, outcome, sample);
+        }
+    }
+
+    // Double and triple integrals over a box, on the scheduler and under the
+    // same time limit as single integrals
+    public IntegrationResult integrateMultiple(MultipleIntegrationRequest request) throws Exception {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null.");
+        }
+        CubatureMethod method = request.getMethod();
+        Timer.Sample sample = IntegrationMetrics.start();
+        String outcome = "error";
+        try {
+            long predictedNanos = CostModel.predictNanos(request);
+            checkBudget(predictedNanos, request.isParallel());
+            admission.acquire(predictedNanos);
+            IntegrationResult result;
+            try {
+                result = awaitResult(scheduler.submit(() -> {
+                    enforceMemoryLimit();
+                    CubatureIntegrator cubature = new CubatureIntegrator(request);
+                    // Node-table setup would be mistaken for evaluation cost
+                    boolean observable = !request.isParallel() && (method != CubatureMethod.TENSOR_GAUSS_LEGENDRE
+                            || GaussLegendreQuadrature.hasRule(request.getIntervals()));
+                    long cpuStart = cpuTime();
+                    double value = IntegrationMetrics.evaluation(method).record(cubature::integrate);
+                    if (observable && cpuStart >= 0) {
+                        CostModel.observe(request.getFunction(), request.getDimensions(), cubature.getEvaluations(),
+                                cpuTime() - cpuStart);
+                    }
+                    IntegrationMetrics.functionEvaluations(method, cubature.getEvaluations());
+                    return new IntegrationResult(value, cubature.getErrorEstimate(), cubature.getEvaluations());
+                }), TIME_LIMIT_MS);
+            } finally {
+                admission.release(predictedNanos);
+            }
+            outcome = "success";
+            return result;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            IntegrationMetrics.timeouts(1);
+            throw e;
+        } catch (RejectedExecutionException e) {
+            outcome = "rejected";
+            IntegrationMetrics.rejected("capacity");
+            throw e;
+        } catch (ArithmeticException e) {
+            outcome = "arithmetic_error";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+            throw e;
+        } finally {
+            IntegrationMetrics.request(method, outcome, sample);
+        }
+    }
+
+    // One function over many windows (or the running integral along a grid),
+    // sharing sample points between windows; results are in request order
+    public double[] integrateBulk(BulkIntegrationRequest request) throws Exception {
+        if (request == null) {
+            throw new IllegalArgumentException("Request cannot be null.");
+        }
+        IntegrationMethod method = request.getIntegrationMethod();
+        Timer.Sample sample = IntegrationMetrics.start();
+        String outcome = "error";
+        try {
+            long predictedNanos = CostModel.predictNanos(request);
+            checkBudget(predictedNanos, request.isParallel());
+            admission.acquire(predictedNanos);
+            double[] results;
+            try {
+                results = awaitResult(scheduler.submit(() -> {
+                    enforceMemoryLimit();
+                    BulkIntegrator bulk = new BulkIntegrator(request);
+                    long cpuStart = cpuTime();
+                    double[] values = IntegrationMetrics.evaluation(method).record(bulk::integrate);
+                    if (!request.isParallel() && cpuStart >= 0) {
+                        CostModel.observe(request.getFunction(), bulk.getEvaluations(), cpuTime() - cpuStart);
+                    }
+                    IntegrationMetrics.functionEvaluations(method, bulk.getEvaluations());
+                    return values;
+                }), TIME_LIMIT_MS);
+            } finally {
+                admission.release(predictedNanos);
+            }
+            outcome = "success";
+            return results;
+        } catch (TimeoutException e) {
+            outcome = "timeout";
+            IntegrationMetrics.timeouts(1);
+            throw e;
+        } catch (RejectedExecutionException e) {
+            outcome = "rejected";
+            IntegrationMetrics.rejected("capacity");
+            throw e;
+        } catch (ArithmeticException e) {
+            outcome = "arithmetic_error";
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = "invalid";
+            throw e;
+        } finally {
+            IntegrationMetrics.request(method, outcome, sample);
+        }
+    }
+
+    // Streams successive estimates of the integral to the listener while it
+    // is refined: every level for Romberg, every doubling of bisections for
+    // adaptive quadrature, and a doubling sequence of interval counts ending
+    // at the requested one for the other methods. The future completes with
+    // the final estimate; cancelling it stops the remaining work.
+    public CompletableFuture<IntegrationResult> integrateProgressively(IntegrationRequest request,
+            RefinementListener listener) {
+        IntegrationMethod method = request != null ? request.getIntegrationMethod() : null;
+        Timer.Sample sample = IntegrationMetrics.start();
+        CompletableFuture<IntegrationResult> flight;
+        try {
+            long predictedNanos = CostModel.predictNanos(request);
+            checkBudget(predictedNanos, request != null && request.isParallel());
+            admission.acquire(predictedNanos);
+            flight = startFlight(predictedNanos, () -> {
+                try {
+                    validateRequest(request);
+                    enforceMemoryLimit();
+                    return executeProgressively(request, listener);
+                } catch (CancellationException e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    throw translateFailure(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            // Reported like any other validation failure
+            flight = CompletableFuture.failedFuture(e);
+        } catch (RejectedExecutionException e) {
+            IntegrationMetrics.rejected("capacity");
+            IntegrationMetrics.request(method, "rejected", sample);
+            throw e;
+        }
+        flight.whenComplete((result, e) -> {
+            String outcome = "error";
+            if (e == null) {
+                outcome = "success";
+            } else if (e instanceof TimeoutException) {
+                outcome = "timeout";
+                IntegrationMetrics.timeouts(1);
+            } else if (e instanceof CancellationException) {
+                outcome = "cancelled";
+            } else if (e instanceof ArithmeticException) {
+                outcome = "arithmetic_error";
+            } else if (e instanceof IllegalArgumentException) {
+                outcome = "invalid";
+            }
+            IntegrationMetrics.request(method, outcome, sample);
+        });
+        return flight;
+    }
+
+    // Runs many integrals concurrently, returning per-item results or errors
+    // in request order. Items with the same expression share the cached
+    // compiled function, singularity analysis and quadrature tables.
+    //
+    // The batch occupies at most one scheduler slot per pool thread: each
+    // worker pulls the next unclaimed item until none are left, so a large
+    // batch cannot flood the shared queue and starve single requests, and one
+    // slow item does not hold up the items behind it. The whole batch is admitted
+    // at once with its total predicted CPU time.
+    public List<BatchItemResult> integrateBatch(List<IntegrationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one request.");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Maximum " + MAX_BATCH_SIZE + " requests allowed per batch.");
+        }
+
+        // Items over the time limit are rejected by validation, so they
+        // are not admitted either
+        long predictedNanos = 0;
+        for (IntegrationRequest request : requests) {
+            long itemNanos = CostModel.predictNanos(request);
+            if (!exceedsBudget(itemNanos, request != null && request.isParallel())) {
+                predictedNanos += itemNanos;
+            }
+        }
+        try {
+            admission.acquire(predictedNanos);
+        } catch (RejectedExecutionException e) {
+            IntegrationMetrics.rejected("capacity");
+            throw e;
+        }
+        try {
+            return runBatch(requests);
+        } finally {
+            admission.release(predictedNanos);
+        }
+    }
+
+    private List<BatchItemResult> runBatch(List<IntegrationRequest> requests) {
+        int size = requests.size();
+        AtomicReferenceArray<BatchItemResult> results = new AtomicReferenceArray<>(size);
+
+        int workers = Math.min(size, scheduler.getPoolSize());
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        Exception rejected = null;
+        for (int w = 0; w < workers; w++) {
+            try {
+                futures.add(scheduler.submit(() -> {
+                    runBatchItems(requests, results, next);
+                    return null;
+                }));
+            } catch (RejectedExecutionException e) {
+                // The workers already running share the remaining items
+                IntegrationMetrics.rejected("capacity");
+                rejected = e;
+                break;
+            }
+        }
+
+        // The whole batch shares one time limit
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIME_LIMIT_MS);
+        boolean timedOut = false;
+        for (Future<?> future : futures) {
+            long remainingNs = deadline - System.nanoTime();
+            try {
+                future.get(Math.max(remainingNs, 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                timedOut = true;
+                break;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | CancellationException e) {
+                // Per-item failures are recorded by the worker itself
+            }
+        }
+        if (timedOut || Thread.currentThread().isInterrupted()) {
+            futures.forEach(future -> future.cancel(true));
+        }
+
+        Exception timeout = new TimeoutException("Integration exceeded time limit (" + TIME_LIMIT_MS + " ms)");
+        List<BatchItemResult> ordered = new ArrayList<>(size);
+        int timeouts = 0;
+        for (int i = 0; i < size; i++) {
+            BatchItemResult result = results.get(i);
+            if (result == null) {
+                // Only a batch that no worker could start is rejected outright
+                boolean started = !futures.isEmpty();
+                if (started || rejected == null) timeouts++;
+                result = BatchItemResult.failure(started || rejected == null ? timeout : rejected);
+            }
+            ordered.add(result);
+        }
+        IntegrationMetrics.timeouts(timeouts);
+        return ordered;
+    }
+
+    private void runBatchItems(List<IntegrationRequest> requests, AtomicReferenceArray<BatchItemResult> results,
+            AtomicInteger next) {
+        for (int i = next.getAndIncrement(); i < requests.size(); i = next.getAndIncrement()) {
+            if (Thread.currentThread().isInterrupted()) return;
+            IntegrationRequest request = requests.get(i);
+            try {
+                validateRequest(request);
+            } catch (CancellationException e) {
+                return;
+            } catch (RuntimeException e) {
+                results.set(i, BatchItemResult.failure(e));
+                continue;
+            }
+            try {
+                enforceMemoryLimit();
+                results.set(i, BatchItemResult.success(executeIntegration(request)));
+            } catch (CancellationException e) {
+                return;
+            } catch (RuntimeException e) {
+                results.set(i, BatchItemResult.failure(translateFailure(e)));
+            }
+        }
+    }
+
+    // Validation compiles the expression and solves for its singularities,
+    // so it runs on the scheduler with the integration itself; the calling
+    // (possibly virtual) request thread only waits. Enforce memory limits.
+    private IntegrationResult compute(IntegrationRequest request) {
+        validateRequest(request);
+        enforceMemoryLimit();
+        return executeIntegration(request);
+    }
+
+    // Admission may wait, so it is acquired before the result cache is
+    // entered: the cache only ever runs startFlight, which does not block. A
+    // caller that finds the flight already started by someone else joins it
+    // and hands its share back.
+    private CompletableFuture<IntegrationResult> admitFlight(IntegrationRequest request, ResultCache.Key key) {
+        long predictedNanos = CostModel.predictNanos(request);
+        checkBudget(predictedNanos, request != null && request.isParallel());
+        admission.acquire(predictedNanos);
+        if (key == null) {
+            return startFlight(predictedNanos, () -> compute(request));
+        }
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            return ResultCache.get(key, () -> {
+                started.set(true);
+                return startFlight(predictedNanos, () -> compute(request));
+            });
+        } finally {
+            if (!started.get()) admission.release(predictedNanos);
+        }
+    }
+
+    // One computation shared by every caller of the same request. The flight
+    // carries its own deadline, so callers joining late cannot extend it, and
+    // the scheduler task is interrupted once the flight times out or is
+    // cancelled. It takes over the caller's admission of predictedNanos and
+    // releases it when it completes (or when the scheduler rejects it).
+    private CompletableFuture<IntegrationResult> startFlight(long predictedNanos,
+            Callable<IntegrationResult> computation) {
+        CompletableFuture<IntegrationResult> flight = new CompletableFuture<>();
+        flight.whenComplete((result, e) -> admission.release(predictedNanos));
+        Future<?> task;
+        try {
+            task = scheduler.submit(() -> {
+                try {
+                    flight.complete(computation.call());
+                } catch (Throwable e) {
+                    flight.completeExceptionally(e);
+                }
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            admission.release(predictedNanos);
+            throw e;
+        }
+        ScheduledFuture<?> deadline = DEADLINES.schedule(() -> flight.completeExceptionally(
+                new TimeoutException("Integration exceeded time limit (" + TIME_LIMIT_MS + " ms)")),
+                TIME_LIMIT_MS, TimeUnit.MILLISECONDS);
+        flight.whenComplete((result, e) -> {
+            deadline.cancel(false);
+            if (e instanceof TimeoutException || e instanceof CancellationException) task.cancel(true);
+        });
+        return flight;
+    }
+
+    static int pendingDeadlines() {
+        return DEADLINES.getQueue().size();
+    }
+
+    private static ScheduledThreadPoolExecutor deadlineTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "integration-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    private IntegrationResult awaitFlight(CompletableFuture<IntegrationResult> flight) throws Exception {
+        try {
+            return flight.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                throw new TimeoutException("Integration exceeded time limit (" + TIME_LIMIT_MS + " ms)");
+            }
+            throw translateFailure(e.getCause());
+        }
+    }
+
+    private void validateRequest(IntegrationRequest request) {
         // Validate input
         if (request == null) {
             throw new IllegalArgumentException("Request cannot be null.");
@@ -32,60 +468,216 @@ public class NumericalIntegrator {
         if (request.getLowerBound() > request.getUpperBound()) {
             throw new IllegalArgumentException("Lower bound must be less than or equal to the upper bound.");
         }
-        if (request.getIntervals() < 1) {
-        	throw new IllegalArgumentException("Intervals must be at least 1");
+        IntegrationMethod method = request.getIntegrationMethod();
+        if ((Double.isInfinite(request.getLowerBound()) || Double.isInfinite(request.getUpperBound()))
+                && !supportsInfiniteBounds(method)) {
+            throw new IllegalArgumentException("Infinite bounds require the DOUBLE_EXPONENTIAL, AUTO, "
+                    + "GAUSS_LAGUERRE_QUADRATURE or GAUSS_HERMITE_QUADRATURE method.");
         }
-        // Validate function syntax
-        Function f = new Function("f(x) = " + request.getFunction());
-        if (!f.checkSyntax()) {
-            throw new IllegalArgumentException("Invalid function syntax: " + f.getErrorMessage());
+        // The double-exponential rule and AUTO choose their own points
+        if (request.getIntervals() < 1 && method != IntegrationMethod.DOUBLE_EXPONENTIAL
+                && method != IntegrationMethod.AUTO) {
+        	throw new IllegalArgumentException("Intervals must be at least 1");
         }
+        // Validate function syntax (compiled once and shared with the integrators)
+        FunctionCache.get(request.getFunction());
+        checkBudget(CostModel.predictNanos(request), request.isParallel());
 
         // Check for division by zero or singularities
-        checkForDivisionByZero(f, request.getLowerBound(), request.getUpperBound());
+        checkForDivisionByZero(request.getFunction(), request.getLowerBound(), request.getUpperBound());
+    }
 
-        // Enforce timeout and memory limits
-        ExecutorService executor = Executors.newSingleThreadExecutor();
-        Future<Double> future = executor.submit(() -> {
-            enforceMemoryLimit();
-            return executeIntegration(request);
-        });
+    // Work predicted to outlast the time limit is refused up front instead
+    // of occupying a worker until it times out
+    private static void checkBudget(long predictedNanos, boolean parallel) {
+        if (exceedsBudget(predictedNanos, parallel)) {
+            throw new IllegalArgumentException("Estimated run time of "
+                    + TimeUnit.NANOSECONDS.toMillis(wallNanos(predictedNanos, parallel))
+                    + " ms exceeds the " + TIME_LIMIT_MS + " ms limit - Please use fewer intervals.");
+        }
+    }
+
+    private static boolean exceedsBudget(long predictedNanos, boolean parallel) {
+        return wallNanos(predictedNanos, parallel) > TimeUnit.MILLISECONDS.toNanos(TIME_LIMIT_MS);
+    }
 
+    private static long wallNanos(long predictedNanos, boolean parallel) {
+        return parallel ? predictedNanos / Runtime.getRuntime().availableProcessors() : predictedNanos;
+    }
+
+    private static boolean supportsInfiniteBounds(IntegrationMethod method) {
+        return method == IntegrationMethod.DOUBLE_EXPONENTIAL
+                || method == IntegrationMethod.AUTO
+                || method == IntegrationMethod.GAUSS_LAGUERRE_QUADRATURE
+                || method == IntegrationMethod.GAUSS_HERMITE_QUADRATURE;
+    }
+
+    private <T> T awaitResult(Future<T> future, long timeoutMs) throws Exception {
         try {
-            return future.get(TIME_LIMIT_MS, TimeUnit.MILLISECONDS);
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
         } catch (TimeoutException e) {
             future.cancel(true);
             throw new TimeoutException("Integration exceeded time limit (" + TIME_LIMIT_MS + " ms)");
         } catch (ExecutionException e) {
-            Throwable cause = e.getCause();
-            if (cause instanceof ArithmeticException) {
-                throw new ArithmeticException("Integration failed: " + cause.getMessage());
-            } else {
-                throw new RuntimeException("Integration error: " + cause.getMessage());
+            throw translateFailure(e.getCause());
+        }
+    }
+
+    // Arithmetic and argument errors keep their type so callers can report
+    // them as client errors; anything else is an internal failure
+    private RuntimeException translateFailure(Throwable cause) {
+        if (cause instanceof ArithmeticException) {
+            return new ArithmeticException("Integration failed: " + cause.getMessage());
+        }
+        if (cause instanceof IllegalArgumentException) {
+            return new IllegalArgumentException(cause.getMessage(), cause);
+        }
+        return new RuntimeException("Integration error: " + cause.getMessage(), cause);
+    }
+
+    private IntegrationResult executeIntegration(IntegrationRequest request) {
+        IntegrationMethod method = request.getIntegrationMethod();
+        long cpuStart = cpuTime();
+        IntegrationResult result = IntegrationMetrics.evaluation(method).record(() -> runIntegrator(request));
+        long cpuNanos = cpuTime() - cpuStart;
+        long evaluations = result.getEvaluations() != null
+                ? result.getEvaluations() : IntegrationCost.estimateEvaluations(request);
+        IntegrationMetrics.functionEvaluations(method, evaluations);
+        // Node-table setup would be mistaken for evaluation cost, and the
+        // helpers of parallel runs spend CPU time on other threads
+        if (CostModel.nodeSetupNanos(method, request.getIntervals()) == 0 && !request.isParallel()
+                && cpuStart >= 0) {
+            CostModel.observe(request.getFunction(), evaluations, cpuNanos);
+        }
+        return result;
+    }
+
+    private IntegrationResult executeProgressively(IntegrationRequest request, RefinementListener listener) {
+        IntegrationMethod method = request.getIntegrationMethod();
+        switch (method) {
+            case ROMBERG:
+                RombergIntegrator romberg = new RombergIntegrator(request);
+                double rombergResult = IntegrationMetrics.evaluation(method).record(() -> romberg.integrate(listener));
+                IntegrationMetrics.functionEvaluations(method, romberg.getEvaluations());
+                return new IntegrationResult(rombergResult, romberg.getErrorEstimate(), romberg.getEvaluations());
+            case ADAPTIVE_QUADRATURE:
+                AdaptiveQuadrature adaptive = new AdaptiveQuadrature(request);
+                double adaptiveResult = IntegrationMetrics.evaluation(method).record(() -> adaptive.integrate(listener));
+                IntegrationMetrics.functionEvaluations(method, adaptive.getEvaluations());
+                return new IntegrationResult(adaptiveResult, adaptive.getErrorEstimate(), adaptive.getEvaluations());
+            case DOUBLE_EXPONENTIAL:
+                DoubleExponentialQuadrature doubleExponential = new DoubleExponentialQuadrature(request);
+                double doubleExponentialResult = IntegrationMetrics.evaluation(method)
+                        .record(() -> doubleExponential.integrate(listener));
+                IntegrationMetrics.functionEvaluations(method, doubleExponential.getEvaluations());
+                return new IntegrationResult(doubleExponentialResult,
+                        doubleExponential.getErrorEstimate(), doubleExponential.getEvaluations());
+            default:
+                return refineByDoubling(request, listener);
+        }
+    }
+
+    // The levels together cost less than twice the requested resolution.
+    // Without an error estimate of its own, a level is compared against the
+    // previous one.
+    private IntegrationResult refineByDoubling(IntegrationRequest request, RefinementListener listener) {
+        int[] schedule = refinementSchedule(request);
+        IntegrationResult estimate = null;
+        long evaluations = 0;
+        for (int level = 0; level < schedule.length; level++) {
+            IntegrationRequest levelRequest = request.withIntervals(schedule[level]);
+            IntegrationResult result = executeIntegration(levelRequest);
+            evaluations += result.getEvaluations() != null
+                    ? result.getEvaluations() : IntegrationCost.estimateEvaluations(levelRequest);
+            Double errorEstimate = result.getErrorEstimate();
+            if (errorEstimate == null && estimate != null) {
+                errorEstimate = Math.abs(result.getResult() - estimate.getResult());
             }
-        } finally {
-            executor.shutdown();
+            estimate = new IntegrationResult(result.getResult(), errorEstimate, evaluations);
+            listener.onEstimate(new IntegrationProgress(level, result.getResult(), errorEstimate, evaluations));
         }
+        return estimate;
     }
 
-    private double executeIntegration(IntegrationRequest request) {
+    // Interval counts halving down from the requested one, smallest first.
+    // Simpson needs even counts; Lobatto and Monte Carlo at least two points.
+    private static int[] refinementSchedule(IntegrationRequest request) {
+        IntegrationMethod method = request.getIntegrationMethod();
+        int requested = request.getIntervals();
+        if (method == IntegrationMethod.AUTO) {
+            return new int[] {requested}; // chooses its own resolution
+        }
+        if (method == IntegrationMethod.SIMPSON && requested % 2 != 0) {
+            return new int[] {requested}; // rejected by the integrator straight away
+        }
+        int minimum = method == IntegrationMethod.SIMPSON || method == IntegrationMethod.LOBATTO_QUADRATURE
+                || method == IntegrationMethod.MONTE_CARLO || method == IntegrationMethod.QUASI_MONTE_CARLO ? 2 : 1;
+        int[] counts = new int[MAX_REFINEMENT_LEVELS];
+        int levels = 0;
+        for (int n = requested; n >= minimum && levels < MAX_REFINEMENT_LEVELS; n /= 2) {
+            if (method == IntegrationMethod.SIMPSON) n &= ~1;
+            if (n < minimum) break;
+            counts[levels++] = n;
+        }
+        if (levels == 0) {
+            return new int[] {requested};
+        }
+        int[] schedule = new int[levels];
+        for (int i = 0; i < levels; i++) {
+            schedule[i] = counts[levels - 1 - i];
+        }
+        return schedule;
+    }
+
+    private IntegrationResult runIntegrator(IntegrationRequest request) {
         IntegrationMethod integrationMethod = request.getIntegrationMethod();
         switch (integrationMethod) {
             case TRAPEZOIDAL:
-                return new TrapezoidalIntegrator(request).integrate();
+                return new IntegrationResult(new TrapezoidalIntegrator(request).integrate());
             case SIMPSON:
-                return new SimpsonIntegrator(request).integrate();
+                return new IntegrationResult(new SimpsonIntegrator(request).integrate());
             case MIDPOINT:
-                return new MidpointIntegrator(request).integrate();
+                return new IntegrationResult(new MidpointIntegrator(request).integrate());
             case LOBATTO_QUADRATURE:
-                return new LobattoQuadrature(request).integrate();
+                return new IntegrationResult(new LobattoQuadrature(request).integrate());
             case GAUSS_LEGENDRE_QUADRATURE:
-                return new GaussLegendreQuadrature(request).integrate();
+                return new IntegrationResult(new GaussLegendreQuadrature(request).integrate());
+            case ROMBERG:
+                RombergIntegrator romberg = new RombergIntegrator(request);
+                double rombergResult = romberg.integrate();
+                return new IntegrationResult(rombergResult, romberg.getErrorEstimate(), romberg.getEvaluations());
+            case ADAPTIVE_QUADRATURE:
+                AdaptiveQuadrature adaptive = new AdaptiveQuadrature(request);
+                double adaptiveResult = adaptive.integrate();
+                return new IntegrationResult(adaptiveResult, adaptive.getErrorEstimate(), adaptive.getEvaluations());
+            case DOUBLE_EXPONENTIAL:
+                DoubleExponentialQuadrature doubleExponential = new DoubleExponentialQuadrature(request);
+                double doubleExponentialResult = doubleExponential.integrate();
+                return new IntegrationResult(doubleExponentialResult,
+                        doubleExponential.getErrorEstimate(), doubleExponential.getEvaluations());
+            case GAUSS_LAGUERRE_QUADRATURE:
+                return new IntegrationResult(new GaussLaguerreQuadrature(request).integrate());
+            case GAUSS_HERMITE_QUADRATURE:
+                return new IntegrationResult(new GaussHermiteQuadrature(request).integrate());
+            case AUTO:
+                return new AutoIntegrator(request).integrate();
+            case MONTE_CARLO:
+            case QUASI_MONTE_CARLO:
+                MonteCarloIntegrator monteCarlo = new MonteCarloIntegrator(
+                        request, integrationMethod == IntegrationMethod.QUASI_MONTE_CARLO);
+                double monteCarloResult = monteCarlo.integrate();
+                return new IntegrationResult(
+                        monteCarloResult, monteCarlo.getErrorEstimate(), monteCarlo.getEvaluations());
             default:
                 throw new IllegalArgumentException("Unknown or unimplemented integration method.");
         }
     }
 
+    // CPU time of the calling thread, or -1 where the JVM does not measure it
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
     private void enforceMemoryLimit() {
         MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
         MemoryUsage heapMemoryUsage = memoryBean.getHeapMemoryUsage();
@@ -96,49 +688,12 @@ public class NumericalIntegrator {
         }
     }
 
-    private void checkForDivisionByZero(Function f, double lowerBound, double upperBound) {
-        String functionStr = f.getFunctionExpressionString();
-        
-        // Try extracting denominator
-        String denominator = extractDenominator(functionStr);
-        if (denominator == null) return; // No denominator, no division by zero risk
-        //Check if denominator evaluates to 0 anywhere within bounds
-        for (double x : findRoots(denominator)) {
-            if (x >= lowerBound && x <= upperBound) {
-                throw new ArithmeticException("Singularity detected at x = " + x);
-            }
-        }
-    }
-
-    // Extract denominator from "p(x)/q(x)" format
-    private String extractDenominator(String function) {
-    	ExprEvaluator evaluator = new ExprEvaluator();
-        IExpr result = evaluator.evaluate("Simplify(" + function + ")");//get p(x)/q(x) format
-        String simplified = result.toScript();
-        int slashIndex = simplified.indexOf('/');
-        if (slashIndex == -1) return null; // No division present
-        
-        return simplified.substring(slashIndex + 1).trim();
-    }
-
-    // Solve denominator = 0
-    private List<Double> findRoots(String denominator) {
-        List<Double> roots = new ArrayList<>();
-        ExprEvaluator evaluator = new ExprEvaluator(false, (short) 100);
-        String equation = "Solve(" + denominator + "== 0, x)";
-        IExpr result = evaluator.evaluate(equation);
-        if (result.isAST()) {  // Ensure result is a list of solutions
-            AST list = (AST) result;
-            for (IExpr solution : list) {
-                if (solution.isAST() && solution.size() == 2) {
-                    IExpr value = solution.getAt(1);
-                    if (value.last().isNumber()) {
-                        roots.add(value.last().toDoubleDefault());
-                    }
-                }
-            }
+    private void checkForDivisionByZero(String functionStr, double lowerBound, double upperBound) {
+        // Denominator roots are solved once per expression and cached
+        OptionalDouble singularity = SingularityAnalyzer.findSingularity(functionStr, lowerBound, upperBound);
+        if (singularity.isPresent()) {
+            throw new ArithmeticException("Singularity detected at x = " + singularity.getAsDouble());
         }
-        return roots;
     }
 
 }
@@ -0,0 +1,59 @@
+package com.wistrum.integrationapi.util;
+
+// Immutable node/weight table on a reference interval: [-1, 1] for the
+// Legendre and Lobatto rules, [0, inf) and (-inf, inf) for the Laguerre and
+// Hermite rules, whose weights already include the inverse weight function.
+// Instances are cached and shared between threads, so the arrays must never
+// be written after construction.
+public final class QuadratureRule {
+    private static final int CANCELLATION_CHECK_MASK = 8_191;
+
+    final double[] nodes;
+    final double[] weights;
+
+    QuadratureRule(double[] nodes, double[] weights) {
+        this.nodes = nodes;
+        this.weights = weights;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public double node(int i) {
+        return nodes[i];
+    }
+
+    public double weight(int i) {
+        return weights[i];
+    }
+
+    // Applies a [-1, 1] rule on [lowerBound, upperBound]
+    double integrate(BatchFunction f, double lowerBound, double upperBound, FunctionValues check) {
+        double scale = (upperBound - lowerBound) / 2.0;
+        double shift = (upperBound + lowerBound) / 2.0;
+        return scale * weightedSum(f, scale, shift, check);
+    }
+
+    // Sum of w_i f(scale * x_i + shift), evaluating f a block of mapped nodes
+    // at a time; check, if given, runs once per block
+    double weightedSum(BatchFunction f, double scale, double shift, FunctionValues check) {
+        BlockBuffers buffers = BlockBuffers.get();
+        double[] x = buffers.x;
+        double[] values = buffers.values;
+        double sum = 0.0;
+        for (int block = 0; block < nodes.length; block += BlockBuffers.SIZE) {
+            if ((block & CANCELLATION_CHECK_MASK) == 0) Cancellation.check();
+            int length = Math.min(BlockBuffers.SIZE, nodes.length - block);
+            for (int k = 0; k < length; k++) {
+                x[k] = scale * nodes[block + k] + shift;
+            }
+            f.evaluate(x, values, length);
+            if (check != null) check.check(x, values, length);
+            for (int k = 0; k < length; k++) {
+                sum += weights[block + k] * values[k];
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,82 @@
+package com.wistrum.integrationapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+
+import java.time.Duration;
+import java.util.Map;
+
+// Token buckets per client, in a bounded cache so a scan of spoofed
+// addresses cannot grow the heap. Clients sending a configured API key get
+// their own capacity; everyone else is limited per address. Idle buckets
+// expire only after a full refill period, by which time they would be full
+// again anyway, so expiry never hands out extra tokens. Size eviction can: a
+// client whose bucket is evicted starts over with a full one, so max-clients
+// should stay well above the number of clients active within a refill period.
+public class RateLimiter {
+    private final long capacity;
+    private final Duration refillPeriod;
+    private final Map<String, Long> apiKeyCapacities;
+    private final Cache<String, Bucket> buckets;
+
+    public RateLimiter(long capacity, Duration refillPeriod, long maxClients, Duration idleExpiry,
+            Map<String, Long> apiKeyCapacities) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Rate limit capacity must be at least 1");
+        }
+        if (refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Rate limit refill period must be positive");
+        }
+        if (maxClients < 1) {
+            throw new IllegalArgumentException("Rate limiter must track at least one client");
+        }
+        apiKeyCapacities.forEach((key, tokens) -> {
+            if (tokens == null || tokens < 1) {
+                throw new IllegalArgumentException("Rate limit capacity for an API key must be at least 1");
+            }
+        });
+        this.capacity = capacity;
+        this.refillPeriod = refillPeriod;
+        this.apiKeyCapacities = Map.copyOf(apiKeyCapacities);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(idleExpiry.compareTo(refillPeriod) > 0 ? idleExpiry : refillPeriod)
+                .recordStats()
+                .build();
+    }
+
+    // Publishes the bucket cache as cache_*{cache="rate_limit_buckets"}; the
+    // gauges are global, so only the application's limiter registers
+    public void monitor() {
+        IntegrationMetrics.monitor(buckets, "rate_limit_buckets");
+    }
+
+    // Tokens a client can spend per refill period; anything costing more
+    // can never be served
+    public long capacity(String apiKey) {
+        Long keyCapacity = apiKey != null ? apiKeyCapacities.get(apiKey) : null;
+        return keyCapacity != null ? keyCapacity : capacity;
+    }
+
+    public boolean tryConsume(String apiKey, String address, long tokens) {
+        Bucket bucket = apiKey != null && apiKeyCapacities.containsKey(apiKey)
+                ? buckets.get("key:" + apiKey, k -> newBucket(apiKeyCapacities.get(apiKey)))
+                : buckets.get("address:" + address, k -> newBucket(capacity));
+        return bucket.tryConsume(tokens);
+    }
+
+    long trackedClients() {
+        buckets.cleanUp();
+        return buckets.estimatedSize();
+    }
+
+    private Bucket newBucket(long tokens) {
+        return Bucket.builder()
+                .addLimit(Bandwidth.classic(tokens, Refill.greedy(tokens, refillPeriod)))
+                .build();
+    }
+}
@@ -0,0 +1,10 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationProgress;
+
+// Receives successive estimates while an integral is refined. Called on the
+// integrating thread; throwing from it aborts the integration.
+@FunctionalInterface
+public interface RefinementListener {
+    void onEstimate(IntegrationProgress progress);
+}
@@ -0,0 +1,130 @@
+package com.wistrum.integrationapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+// Bounded cache of integration results keyed by the canonicalized request.
+// Entries are futures, so identical requests arriving while the first one is
+// still running join it instead of integrating again (single flight). Failed
+// and timed-out computations are dropped and retried on the next request.
+//
+// The futures are plain values rather than Caffeine async loads: a flight
+// that fails validation is an expected outcome, which an async cache would
+// log as a load failure with a stack trace.
+final class ResultCache {
+    private static final long MAX_ENTRIES = 10_000;
+    private static final Duration EXPIRE_AFTER_WRITE = Duration.ofMinutes(10);
+
+    private static final Cache<Key, CompletableFuture<IntegrationResult>> RESULTS = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(EXPIRE_AFTER_WRITE)
+            .recordStats()
+            .build();
+
+    static {
+        IntegrationMetrics.monitor(RESULTS, "results");
+    }
+
+    private ResultCache() {
+    }
+
+    // Null when the request cannot be cached: it is incomplete (validation
+    // reports that) or its result depends on wall-clock time
+    static Key key(IntegrationRequest request) {
+        if (request == null || request.getFunction() == null || request.getFunction().isBlank()
+                || request.getAngularMeasure() == null || request.getIntegrationMethod() == null
+                || request.getTimeBudgetMs() != null) {
+            return null;
+        }
+        return new Key(request);
+    }
+
+    // The cached flight for key, starting one if there is none. flight runs
+    // under the cache's lock for the key, so it must only start the work.
+    static CompletableFuture<IntegrationResult> get(Key key, Supplier<CompletableFuture<IntegrationResult>> flight) {
+        return dropOnFailure(key, RESULTS.get(key, k -> flight.get()));
+    }
+
+    // The cached flight for key, or null. Only a hit is counted here; the
+    // miss is counted by the get that follows it.
+    static CompletableFuture<IntegrationResult> getIfPresent(Key key) {
+        if (!RESULTS.asMap().containsKey(key)) return null;
+        CompletableFuture<IntegrationResult> cached = RESULTS.getIfPresent(key);
+        return cached != null ? dropOnFailure(key, cached) : null;
+    }
+
+    // Registered outside the loader: a flight that has already failed would
+    // otherwise remove itself from within the cache's own update. Callers
+    // wait on the dependent stage, so a failure they see has already left
+    // the cache.
+    private static CompletableFuture<IntegrationResult> dropOnFailure(Key key,
+            CompletableFuture<IntegrationResult> cached) {
+        return cached.whenComplete((result, e) -> {
+            if (e != null) RESULTS.asMap().remove(key, cached);
+        });
+    }
+
+    static CacheStats stats() {
+        return RESULTS.stats();
+    }
+
+    // Bounds are compared after conversion to radians, so 180 DEGREES and
+    // pi RADIANS share an entry. parallel is left out: it does not change
+    // the result, only how it is computed. Nor do intervals for the methods
+    // that choose their own points.
+    static final class Key {
+        private final String function;
+        private final double lowerBound;
+        private final double upperBound;
+        private final IntegrationMethod method;
+        private final int intervals;
+        private final Double absoluteTolerance;
+        private final Double relativeTolerance;
+        private final Integer maxEvaluations;
+        private final Long seed;
+
+        private Key(IntegrationRequest request) {
+            this.function = FunctionCache.normalize(request.getFunction());
+            this.lowerBound = request.getLowerBound();
+            this.upperBound = request.getUpperBound();
+            this.method = request.getIntegrationMethod();
+            this.intervals = method == IntegrationMethod.AUTO || method == IntegrationMethod.DOUBLE_EXPONENTIAL
+                    ? 0 : request.getIntervals();
+            this.absoluteTolerance = request.getAbsoluteTolerance();
+            this.relativeTolerance = request.getRelativeTolerance();
+            this.maxEvaluations = request.getMaxEvaluations();
+            this.seed = request.getSeed();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return Double.compare(lowerBound, other.lowerBound) == 0
+                    && Double.compare(upperBound, other.upperBound) == 0
+                    && intervals == other.intervals
+                    && method == other.method
+                    && function.equals(other.function)
+                    && Objects.equals(absoluteTolerance, other.absoluteTolerance)
+                    && Objects.equals(relativeTolerance, other.relativeTolerance)
+                    && Objects.equals(maxEvaluations, other.maxEvaluations)
+                    && Objects.equals(seed, other.seed);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(function, lowerBound, upperBound, method, intervals,
+                    absoluteTolerance, relativeTolerance, maxEvaluations, seed);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationProgress;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+
+// Romberg integration: trapezoid estimates with step halving, where each
+// level only evaluates the new midpoints and reuses the previous sum, followed
+// by Richardson extrapolation. Stops as soon as successive diagonal entries
+// agree to the requested tolerance; 'intervals' caps the finest trapezoid.
+public class RombergIntegrator {
+    private static final int MAX_INTERVALS = 1_000_000;
+    private static final int MIN_LEVELS = 4;
+    private static final double MAX_FUNCTION_VALUE = 1e150;
+    private static final FunctionValues VALUES =
+            new FunctionValues(MAX_FUNCTION_VALUE, "Function may be discontinuous near x = ");
+
+    private final IntegrationRequest request;
+    private final BatchFunction f;
+    private final double absoluteTolerance;
+    private final double relativeTolerance;
+
+    private double errorEstimate;
+    private long evaluations;
+
+    public RombergIntegrator(IntegrationRequest request) {
+        this.request = request;
+        this.f = FunctionCache.get(request.getFunction());
+        this.absoluteTolerance = request.getAbsoluteTolerance() != null
+                ? request.getAbsoluteTolerance() : AdaptiveQuadrature.DEFAULT_ABSOLUTE_TOLERANCE;
+        this.relativeTolerance = request.getRelativeTolerance() != null
+                ? request.getRelativeTolerance() : AdaptiveQuadrature.DEFAULT_RELATIVE_TOLERANCE;
+    }
+
+    public double integrate() {
+        return integrate(null);
+    }
+
+    // Reports the extrapolated estimate of every level to the listener
+    public double integrate(RefinementListener listener) {
+        validateInputs();
+
+        double lowerBound = request.getLowerBound();
+        double upperBound = request.getUpperBound();
+        int maxLevel = 31 - Integer.numberOfLeadingZeros(request.getIntervals());
+
+        double width = upperBound - lowerBound;
+        double[] previous = new double[maxLevel + 1];
+        double[] current = new double[maxLevel + 1];
+        previous[0] = 0.5 * width * (evaluateFunctionSafely(lowerBound) + evaluateFunctionSafely(upperBound));
+        evaluations = 2;
+
+        for (int level = 1; level <= maxLevel; level++) {
+            int newPoints = 1 << (level - 1);
+            double step = width / (2 * newPoints);
+            // Only the midpoints of the previous level's intervals are new
+            double midpointSum = CompositeSum.sum(
+                    f, i -> lowerBound + (2 * i + 1) * step, VALUES, 0, newPoints, request.isParallel());
+            evaluations += newPoints;
+
+            current[0] = 0.5 * previous[0] + step * midpointSum;
+            double factor = 1.0;
+            for (int j = 1; j <= level; j++) {
+                factor *= 4.0;
+                current[j] = current[j - 1] + (current[j - 1] - previous[j - 1]) / (factor - 1);
+            }
+
+            errorEstimate = Math.abs(current[level] - previous[level - 1]);
+            if (listener != null) {
+                listener.onEstimate(new IntegrationProgress(level, current[level], errorEstimate, evaluations));
+            }
+            double[] swap = previous;
+            previous = current;
+            current = swap;
+            if (level >= MIN_LEVELS
+                    && errorEstimate <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(previous[level]))) {
+                return previous[level];
+            }
+        }
+        return previous[maxLevel];
+    }
+
+    public double getErrorEstimate() {
+        return errorEstimate;
+    }
+
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    private void validateInputs() {
+        double lowerBound = request.getLowerBound();
+        double upperBound = request.getUpperBound();
+        int intervals = request.getIntervals();
+
+        if (Double.isNaN(lowerBound) || Double.isNaN(upperBound)) {
+            throw new IllegalArgumentException("Integration bounds cannot be NaN");
+        }
+        if (lowerBound >= upperBound) {
+            throw new IllegalArgumentException("Lower bound must be less than upper bound");
+        }
+        if (intervals < 2) {
+            throw new IllegalArgumentException("Romberg integration requires at least two intervals");
+        }
+        if (intervals > MAX_INTERVALS) {
+            throw new IllegalArgumentException("Maximum " + MAX_INTERVALS + " intervals allowed");
+        }
+        AdaptiveQuadrature.checkTolerances(absoluteTolerance, relativeTolerance);
+    }
+
+    private double evaluateFunctionSafely(double x) {
+        double result = f.applyAsDouble(x);
+        if (Double.isNaN(result) || Double.isInfinite(result)
+                || Math.abs(result) > MAX_FUNCTION_VALUE) {
+            throw new ArithmeticException("Function may be discontinuous near x = " + x);
+        }
+        return result;
+    }
+}
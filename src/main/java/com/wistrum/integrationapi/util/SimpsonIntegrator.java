@@ -1,52 +1,41 @@
 package com.wistrum.integrationapi.util;
 
 import com.wistrum.integrationapi.model.IntegrationRequest;
-import org.mariuszgromada.math.mxparser.Function;
-import java.util.ArrayList;
-import java.util.List;
 
 public class SimpsonIntegrator {
     private static final int MAX_INTERVALS = 1_000_000;
     private static final double MAX_FUNCTION_VALUE = 1e150;
+    private static final FunctionValues VALUES =
+            new FunctionValues(MAX_FUNCTION_VALUE, "Function may be discontinuous near x = ");
 
     private final IntegrationRequest request;
-    private final Function f;
+    private final BatchFunction f;
 
     public SimpsonIntegrator(IntegrationRequest request) {
         this.request = request;
         
-        // Validate function syntax
-        this.f = new Function("f(x) = " + request.getFunction());
-        if (!f.checkSyntax()) {
-            throw new IllegalArgumentException(
-            		"Invalid function syntax: " + request.getFunction());
-        }
+        // Validate function syntax and reuse the shared compiled function
+        this.f = FunctionCache.get(request.getFunction());
     }
 
     public double integrate() {
         validateInputs();
-        checkFunctionStability();
 
         double lowerBound = request.getLowerBound();
         double upperBound = request.getUpperBound();
         int intervals = request.getIntervals();
+        FunctionValues.checkStability(f, lowerBound, upperBound, MAX_FUNCTION_VALUE);
         double stepSize = Math.fma(1.0 / intervals, (upperBound - lowerBound), 0);
 
         double fa = evaluateFunctionSafely(lowerBound);
         double fb = evaluateFunctionSafely(upperBound);
-        double sum = fa + fb;
-
-        // Sum for odd indices (4*f(x))
-        for (int i = 1; i < intervals; i += 2) {
-            double xi = lowerBound + i * stepSize;
-            sum += 4 * evaluateFunctionSafely(xi);
-        }
-
-        // Sum for even indices (2*f(x))
-        for (int i = 2; i < intervals; i += 2) {
-            double xi = lowerBound + i * stepSize;
-            sum += 2 * evaluateFunctionSafely(xi);
-        }
+        // Odd indices weigh 4*f(x), interior even indices 2*f(x)
+        int half = intervals / 2;
+        double odd = CompositeSum.sum(
+                f, j -> lowerBound + (2 * j + 1) * stepSize, VALUES, 0, half, request.isParallel());
+        double even = CompositeSum.sum(
+                f, j -> lowerBound + (2 * j) * stepSize, VALUES, 1, half, request.isParallel());
+        double sum = fa + fb + 4 * odd + 2 * even;
 
         return (stepSize / 3) * sum;
     }
@@ -73,38 +62,9 @@ public class SimpsonIntegrator {
         }
     }
 
-    private void checkFunctionStability() {
-        double lowerBound = request.getLowerBound();
-        double upperBound = request.getUpperBound();
-        
-        double[] testPoints = {
-            lowerBound, 
-            upperBound, 
-            (lowerBound + upperBound) / 2,
-            lowerBound + (upperBound - lowerBound) / 4,
-            upperBound - (upperBound - lowerBound) / 4
-        };
-        
-        List<String> instabilityReasons = new ArrayList<>();
-        for (double x : testPoints) {
-            try {
-                double result = f.calculate(x);
-                if (Double.isInfinite(result) || Math.abs(result) > MAX_FUNCTION_VALUE) {
-                    instabilityReasons.add("Extreme value at x = " + x);
-                }
-            } catch (Exception e) {
-                instabilityReasons.add("Error at x = " + x + ": " + e.getMessage());
-            }
-        }
-        if (!instabilityReasons.isEmpty()) {
-            throw new ArithmeticException(
-            		"Function instability detected: " + String.join("; ", instabilityReasons));
-        }
-    }
-
     private double evaluateFunctionSafely(double x) {
         try {
-            double result = f.calculate(x);
+            double result = f.applyAsDouble(x);
             if (Double.isNaN(result) || Double.isInfinite(result) 
             		|| Math.abs(result) > MAX_FUNCTION_VALUE) {
                 throw new ArithmeticException("Function may be discontinuous near x = " + x);
@@ -0,0 +1,120 @@
+package com.wistrum.integrationapi.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.matheclipse.core.eval.ExprEvaluator;
+import org.matheclipse.core.interfaces.IAST;
+import org.matheclipse.core.interfaces.IExpr;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.OptionalDouble;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Symbolic singularity analysis through Symja. The real roots of an
+// expression's denominator are computed once per expression and cached as a
+// sorted array, so checking new bounds is a binary search. Symja evaluators
+// are expensive to create and not thread-safe, so they are pooled.
+public final class SingularityAnalyzer {
+    private static final long MAX_ENTRIES = 1_000;
+    private static final Duration EXPIRE_AFTER_ACCESS = Duration.ofHours(1);
+    private static final int POOL_SIZE = Runtime.getRuntime().availableProcessors();
+    private static final double[] NO_ROOTS = new double[0];
+
+    private static final Cache<String, double[]> ROOTS = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterAccess(EXPIRE_AFTER_ACCESS)
+            .recordStats()
+            .build();
+
+    static {
+        IntegrationMetrics.monitor(ROOTS, "singularities");
+    }
+    private static final BlockingQueue<ExprEvaluator> EVALUATORS = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    private SingularityAnalyzer() {
+    }
+
+    public static OptionalDouble findSingularity(String expression, double lowerBound, double upperBound) {
+        double[] roots = roots(expression);
+        int index = Arrays.binarySearch(roots, lowerBound);
+        if (index < 0) index = -index - 1;
+        if (index < roots.length && roots[index] <= upperBound) {
+            return OptionalDouble.of(roots[index]);
+        }
+        return OptionalDouble.empty();
+    }
+
+    static double[] roots(String expression) {
+        return ROOTS.get(FunctionCache.normalize(expression),
+                key -> IntegrationMetrics.singularityAnalysis().record(() -> analyze(key)));
+    }
+
+    public static CacheStats stats() {
+        return ROOTS.stats();
+    }
+
+    // Fills the evaluator pool ahead of the first request; Symja's first
+    // evaluation initializes its rule base and takes seconds.
+    public static void warmUp() {
+        while (EVALUATORS.remainingCapacity() > 0) {
+            if (!EVALUATORS.offer(newEvaluator())) break;
+        }
+    }
+
+    static double[] analyze(String expression) {
+        ExprEvaluator evaluator = borrowEvaluator();
+        double[] roots = NO_ROOTS;
+        String denominator = extractDenominator(evaluator, expression);
+        if (denominator != null) {
+            roots = findRoots(evaluator, denominator);
+        }
+        // Only returned on success; an evaluator that threw may hold partial state
+        EVALUATORS.offer(evaluator);
+        return roots;
+    }
+
+    // Extract denominator from "p(x)/q(x)" format
+    private static String extractDenominator(ExprEvaluator evaluator, String function) {
+        IExpr result = evaluator.evaluate("Simplify(" + function + ")"); //get p(x)/q(x) format
+        String simplified = result.toScript();
+        int slashIndex = simplified.indexOf('/');
+        if (slashIndex == -1) return null; // No division present
+
+        return simplified.substring(slashIndex + 1).trim();
+    }
+
+    // Solve denominator = 0, keeping the real numeric solutions
+    private static double[] findRoots(ExprEvaluator evaluator, String denominator) {
+        IExpr result = evaluator.evaluate("Solve(" + denominator + "== 0, x)");
+        if (!result.isList()) return NO_ROOTS; // Solve returned unevaluated
+
+        IAST list = (IAST) result;
+        double[] roots = new double[list.size()];
+        int count = 0;
+        for (IExpr solution : list) {
+            if (solution.isAST() && solution.size() == 2) {
+                IExpr value = solution.getAt(1);
+                if (value.last().isReal()) { // complex roots are not singularities on the real line
+                    roots[count++] = value.last().toDoubleDefault();
+                }
+            }
+        }
+        roots = Arrays.copyOf(roots, count);
+        Arrays.sort(roots);
+        return roots;
+    }
+
+    private static ExprEvaluator borrowEvaluator() {
+        ExprEvaluator evaluator = EVALUATORS.poll();
+        return evaluator != null ? evaluator : newEvaluator();
+    }
+
+    private static ExprEvaluator newEvaluator() {
+        ExprEvaluator evaluator = new ExprEvaluator();
+        evaluator.evaluate("Solve(Simplify((x^2-1)/(x-2)) == 0, x)");
+        return evaluator;
+    }
+}
@@ -0,0 +1,47 @@
+package com.wistrum.integrationapi.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Float64ArrayHttpMessageConverterTest {
+
+    private final Float64ArrayHttpMessageConverter converter = new Float64ArrayHttpMessageConverter();
+
+    @Test
+    void testWritesHeaderThenLittleEndianDoubles() throws Exception {
+        double[] values = new double[5_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i) * 1e3;
+        }
+        values[1] = Double.NaN;
+        values[2] = Double.NEGATIVE_INFINITY;
+
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(values, Float64ArrayHttpMessageConverter.APPLICATION_FLOAT64, message);
+
+        byte[] body = message.getBodyAsBytes();
+        assertEquals(8 + 8 * values.length, body.length);
+        assertEquals(body.length, message.getHeaders().getContentLength());
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals("F64L", new String(body, 0, 4, "US-ASCII"));
+        assertEquals(values.length, buffer.getInt(4));
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(Double.doubleToRawLongBits(values[i]),
+                    Double.doubleToRawLongBits(buffer.getDouble(8 + 8 * i)), "value " + i);
+        }
+    }
+
+    @Test
+    void testOnlyWritesDoubleArrays() {
+        assertTrue(converter.canWrite(double[].class, Float64ArrayHttpMessageConverter.APPLICATION_FLOAT64));
+        assertFalse(converter.canWrite(double[].class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(Double[].class, Float64ArrayHttpMessageConverter.APPLICATION_FLOAT64));
+        assertFalse(converter.canRead(double[].class, Float64ArrayHttpMessageConverter.APPLICATION_FLOAT64));
+    }
+}
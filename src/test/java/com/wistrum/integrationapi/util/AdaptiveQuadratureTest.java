@@ -0,0 +1,36 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveQuadratureTest {
+
+    @Test
+    void testAdaptiveQuadratureMeetsTolerance() throws Exception {
+        IntegrationRequest request = TestRequests.of("sqrt(x)", 0, 1, IntegrationMethod.ADAPTIVE_QUADRATURE, 1);
+        request.setAbsoluteTolerance(1e-12);
+        request.setRelativeTolerance(0.0);
+        IntegrationResult result = new NumericalIntegrator().integrateDetailed(request);
+        assertEquals(2.0 / 3, result.getResult(), 1e-12);
+        assertTrue(result.getErrorEstimate() <= 1e-12);
+        assertTrue(result.getEvaluations() < 2_000, "Adaptive refinement should concentrate near x = 0");
+    }
+
+    @Test
+    void testToleranceMustBeFinite() {
+        for (double tolerance : new double[] {Double.NaN, Double.POSITIVE_INFINITY, -1e-8}) {
+            IntegrationRequest request = TestRequests.of("sqrt(x)", 0, 1, IntegrationMethod.ADAPTIVE_QUADRATURE, 1);
+            request.setAbsoluteTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new AdaptiveQuadrature(request).integrate(),
+                    "absolute " + tolerance);
+            request.setAbsoluteTolerance(null);
+            request.setRelativeTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new AdaptiveQuadrature(request).integrate(),
+                    "relative " + tolerance);
+        }
+    }
+}
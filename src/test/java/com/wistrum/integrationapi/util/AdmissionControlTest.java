@@ -0,0 +1,110 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTest {
+
+    @Test
+    void testInterpretedExpressionsArePredictedSlowerOnceTheyHaveRun() throws Exception {
+        String compiled = "x^2 + 7*x";
+        String interpreted = "x^2 + 7!*x";
+        // Nothing is evaluated to predict an expression that has not run yet
+        assertEquals(CostModel.DEFAULT_NANOS_PER_EVALUATION, CostModel.nanosPerEvaluation(compiled));
+        assertEquals(CostModel.DEFAULT_NANOS_PER_EVALUATION, CostModel.nanosPerEvaluation(interpreted));
+
+        NumericalIntegrator integrator = new NumericalIntegrator();
+        integrator.integrate(TestRequests.of(compiled, 0, 1, IntegrationMethod.TRAPEZOIDAL, 200_000));
+        integrator.integrate(TestRequests.of(interpreted, 0, 1, IntegrationMethod.TRAPEZOIDAL, 200_000));
+        double compiledNanos = CostModel.nanosPerEvaluation(compiled);
+        double interpretedNanos = CostModel.nanosPerEvaluation(interpreted);
+        assertTrue(compiledNanos < CostModel.DEFAULT_NANOS_PER_EVALUATION, "compiled " + compiledNanos);
+        assertTrue(interpretedNanos > 5 * compiledNanos, interpretedNanos + " vs " + compiledNanos);
+    }
+
+    @Test
+    void testNodeTableSetupIsChargedOnlyUntilCached() {
+        assertTrue(CostModel.nodeSetupNanos(IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, 1_234) > 0);
+        GaussLegendreQuadrature.rule(1_234);
+        assertEquals(0, CostModel.nodeSetupNanos(IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, 1_234));
+        assertEquals(0, CostModel.nodeSetupNanos(IntegrationMethod.TRAPEZOIDAL, 1_234));
+    }
+
+    @Test
+    void testRequestsPredictedToTimeOutAreRejectedUpFront() {
+        // Computing a 500k-node Gauss-Legendre table takes far longer than the time limit
+        IntegrationRequest request = TestRequests.of("x", 0, 1, IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, 500_000);
+        long start = System.nanoTime();
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new NumericalIntegrator().integrate(request));
+        assertTrue(e.getMessage().startsWith("Estimated run time"), e.getMessage());
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    void testJoiningAndCachedRequestsHandBackTheirAdmission() throws Exception {
+        AdmissionController admission = new AdmissionController(1.0, Duration.ofSeconds(2), Duration.ofSeconds(5));
+        NumericalIntegrator integrator = new NumericalIntegrator(IntegrationScheduler.shared(), admission);
+        IntegrationRequest request = TestRequests.of("x^3*sin(x)", 0, 2, IntegrationMethod.TRAPEZOIDAL, 300_000);
+
+        List<CompletableFuture<Double>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return integrator.integrate(request);
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }));
+        }
+        double result = calls.get(0).get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<Double> call : calls) {
+            assertEquals(result, call.get(10, TimeUnit.SECONDS), 0.0);
+        }
+        assertEquals(result, integrator.integrate(request), 0.0);
+
+        // The flight releases its share from a completion callback
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.getAdmittedNanos() != 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, admission.getAdmittedNanos());
+    }
+
+    @Test
+    void testWorkBeyondCapacityWaitsForRelease() throws Exception {
+        AdmissionController admission = new AdmissionController(1.0, Duration.ofMillis(10), Duration.ofSeconds(5));
+        long capacity = admission.getCapacityNanos();
+
+        // An idle controller admits even oversized work
+        admission.acquire(2 * capacity);
+        CompletableFuture<Void> waiting = CompletableFuture.runAsync(() -> admission.acquire(capacity / 2));
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        admission.release(2 * capacity);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(capacity / 2, admission.getAdmittedNanos());
+        admission.release(capacity / 2);
+    }
+
+    @Test
+    void testRejectsAfterMaxWait() {
+        AdmissionController admission = new AdmissionController(1.0, Duration.ofMillis(10), Duration.ofMillis(50));
+        admission.acquire(admission.getCapacityNanos());
+        assertThrows(RejectedExecutionException.class, () -> admission.acquire(admission.getCapacityNanos()));
+        admission.release(admission.getCapacityNanos());
+        assertEquals(0, admission.getAdmittedNanos());
+    }
+}
@@ -0,0 +1,81 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutoIntegratorTest {
+
+    private static IntegrationResult integrate(String function, double lowerBound, double upperBound) {
+        IntegrationRequest request = TestRequests.of(function, lowerBound, upperBound, IntegrationMethod.AUTO, 0);
+        return new AutoIntegrator(request).integrate();
+    }
+
+    @Test
+    void testSmoothIntegrandsUseFewGaussPoints() {
+        IntegrationResult result = integrate("exp(x)", 0, 1);
+        assertEquals(IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, result.getMethod());
+        assertEquals(Math.E - 1, result.getResult(), 1e-14);
+        assertTrue(result.getEvaluations() < 150, "evaluations " + result.getEvaluations());
+    }
+
+    @Test
+    void testOscillationRaisesTheGaussOrder() {
+        IntegrationResult result = integrate("sin(40x)", 0, 3);
+        assertEquals(IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, result.getMethod());
+        assertEquals((1 - Math.cos(120)) / 40, result.getResult(), 1e-12);
+        assertTrue(result.getEvaluations() < 1_000, "evaluations " + result.getEvaluations());
+    }
+
+    @Test
+    void testEndpointSingularitiesUseDoubleExponential() {
+        IntegrationResult sqrt = integrate("sqrt(x)", 0, 1);
+        assertEquals(IntegrationMethod.DOUBLE_EXPONENTIAL, sqrt.getMethod());
+        assertEquals(2.0 / 3, sqrt.getResult(), 1e-10);
+
+        IntegrationResult log = integrate("ln(x)", 0, 1);
+        assertEquals(IntegrationMethod.DOUBLE_EXPONENTIAL, log.getMethod());
+        assertEquals(-1.0, log.getResult(), 1e-10);
+    }
+
+    @Test
+    void testMildEndpointSingularitiesMeetTheTolerance() {
+        // Gauss-Legendre converges algebraically here, but quickly enough
+        IntegrationResult result = integrate("x*ln(x)", 0, 1);
+        assertEquals(-0.25, result.getResult(), 1e-8);
+    }
+
+    @Test
+    void testInteriorKinksUseAdaptiveQuadrature() {
+        IntegrationResult result = integrate("abs(x - 0.3)", 0, 1);
+        assertEquals(IntegrationMethod.ADAPTIVE_QUADRATURE, result.getMethod());
+        assertEquals(0.29, result.getResult(), 1e-10);
+    }
+
+    @Test
+    void testToleranceMustBeFinite() {
+        for (double tolerance : new double[] {Double.NaN, Double.POSITIVE_INFINITY, -1e-8}) {
+            IntegrationRequest request = TestRequests.of("exp(x)", 0, 1, IntegrationMethod.AUTO, 0);
+            request.setAbsoluteTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new AutoIntegrator(request).integrate(),
+                    "absolute " + tolerance);
+            request.setAbsoluteTolerance(null);
+            request.setRelativeTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new AutoIntegrator(request).integrate(),
+                    "relative " + tolerance);
+        }
+    }
+
+    @Test
+    void testInfiniteBoundsAndRequestPath() throws Exception {
+        IntegrationRequest request = TestRequests.of("exp(-x^2)", Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY,
+                IntegrationMethod.AUTO, 0);
+        IntegrationResult result = new NumericalIntegrator().integrateDetailed(request);
+        assertEquals(IntegrationMethod.DOUBLE_EXPONENTIAL, result.getMethod());
+        assertEquals(Math.sqrt(Math.PI), result.getResult(), 1e-10);
+        assertNotNull(result.getEvaluations());
+    }
+}
@@ -0,0 +1,56 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.BatchItemResult;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchIntegrationTest {
+
+    private static IntegrationRequest square() {
+        return TestRequests.of("x^2", 0, 2, IntegrationMethod.TRAPEZOIDAL, 1000);
+    }
+
+    @Test
+    void testBatchReturnsPerItemResultsInOrder() {
+        IntegrationRequest invalid = new IntegrationRequest();
+        invalid.setFunction("invalid_function(");
+        invalid.setAngularMeasure(AngularMeasure.RADIANS);
+        invalid.setMethod(IntegrationMethod.TRAPEZOIDAL);
+        invalid.setIntervals(10);
+
+        IntegrationRequest request = square();
+        List<BatchItemResult> results = new NumericalIntegrator().integrateBatch(List.of(request, invalid, request));
+        assertEquals(3, results.size());
+        assertEquals(2.66666, results.get(0).getResult(), 1e-5);
+        assertNull(results.get(1).getResult());
+        assertEquals("Invalid Argument", results.get(1).getError());
+        assertEquals(results.get(0).getResult(), results.get(2).getResult());
+    }
+
+    @Test
+    void testWorkersShareTheItemsOfALargeBatch() {
+        IntegrationScheduler scheduler = new IntegrationScheduler(2, 0);
+        try {
+            List<IntegrationRequest> requests = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                IntegrationRequest item = square().withIntervals(1000 + i);
+                item.setUpperBound(1 + i % 3);
+                requests.add(item);
+            }
+            List<BatchItemResult> results = new NumericalIntegrator(scheduler).integrateBatch(requests);
+            for (int i = 0; i < requests.size(); i++) {
+                double upper = 1 + i % 3;
+                assertEquals(upper * upper * upper / 3, results.get(i).getResult(), 1e-5, "item " + i);
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.BulkIntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkIntegratorTest {
+
+    private static BulkIntegrationRequest request(String function, IntegrationMethod method, int intervals) {
+        BulkIntegrationRequest request = new BulkIntegrationRequest();
+        request.setFunction(function);
+        request.setAngularMeasure(AngularMeasure.RADIANS);
+        request.setIntegrationMethod(method);
+        request.setIntervals(intervals);
+        return request;
+    }
+
+    @Test
+    void testWindowsMatchTheirIntegrals() {
+        BulkIntegrationRequest request = request("cos(x)", IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, 200);
+        request.setLowerBounds(new double[] {0, 1, 0.5, -2, 3, 10});
+        request.setUpperBounds(new double[] {1, 2, 1.5, 2, 3, 12});
+        double[] results = new BulkIntegrator(request).integrate();
+        assertEquals(6, results.length);
+        for (int i = 0; i < results.length; i++) {
+            double expected = Math.sin(request.getUpperBounds()[i]) - Math.sin(request.getLowerBounds()[i]);
+            assertEquals(expected, results[i], 1e-12, "window " + i);
+        }
+    }
+
+    @Test
+    void testEveryRuleConverges() {
+        IntegrationMethod[] methods = {IntegrationMethod.TRAPEZOIDAL, IntegrationMethod.MIDPOINT,
+            IntegrationMethod.SIMPSON, IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE};
+        for (IntegrationMethod method : methods) {
+            BulkIntegrationRequest request = request("x^3 - x", method, 10_000);
+            request.setLowerBounds(new double[] {0, -1, 0.25});
+            request.setUpperBounds(new double[] {2, 1, 0.75});
+            double[] results = new BulkIntegrator(request).integrate();
+            assertEquals(2.0, results[0], 1e-6, method.name());
+            assertEquals(0.0, results[1], 1e-6, method.name());
+            assertEquals((Math.pow(0.75, 4) - Math.pow(0.25, 4)) / 4 - 0.25, results[2], 1e-6, method.name());
+        }
+    }
+
+    @Test
+    void testGridGivesRunningIntegral() {
+        BulkIntegrationRequest request = request("exp(x)", IntegrationMethod.SIMPSON, 100_000);
+        double[] grid = new double[101];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = i * 0.03;
+        }
+        request.setGrid(grid);
+        double[] results = new BulkIntegrator(request).integrate();
+        for (int i = 0; i < grid.length; i++) {
+            assertEquals(Math.expm1(grid[i]), results[i], 1e-9 * Math.exp(grid[i]), "x = " + grid[i]);
+        }
+    }
+
+    @Test
+    void testGapsBetweenWindowsAreNotSampled() {
+        // 1/x has a pole in the gap, which no window spans
+        BulkIntegrationRequest request = request("1/x", IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE, 1_000);
+        request.setLowerBounds(new double[] {-2, 1});
+        request.setUpperBounds(new double[] {-1, 2});
+        BulkIntegrator bulk = new BulkIntegrator(request);
+        double[] results = bulk.integrate();
+        assertEquals(-Math.log(2), results[0], 1e-12);
+        assertEquals(Math.log(2), results[1], 1e-12);
+        assertEquals(5_000, bulk.getEvaluations());
+
+        request.setLowerBounds(new double[] {-2});
+        request.setUpperBounds(new double[] {2});
+        assertThrows(ArithmeticException.class, () -> new BulkIntegrator(request).integrate());
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        BulkIntegrationRequest request = request("sin(x)*exp(-x/3)", IntegrationMethod.SIMPSON, 1_000_000);
+        request.setGrid(new double[] {0, 1, 2, 5, 8, 13, 21});
+        double[] sequential = new BulkIntegrator(request).integrate();
+        request.setParallel(true);
+        assertArrayEquals(sequential, new BulkIntegrator(request).integrate(), 0.0);
+    }
+
+    @Test
+    void testNegativeZeroIsTheSameBreakpointAsZero() {
+        BulkIntegrationRequest windows = request("x", IntegrationMethod.TRAPEZOIDAL, 10);
+        windows.setLowerBounds(new double[] {-0.0, 0.0});
+        windows.setUpperBounds(new double[] {1, 1});
+        assertArrayEquals(new double[] {0.5, 0.5}, new BulkIntegrator(windows).integrate(), 1e-12);
+
+        BulkIntegrationRequest grid = request("x", IntegrationMethod.TRAPEZOIDAL, 10);
+        grid.setGrid(new double[] {-0.0, 0.0, 1});
+        assertArrayEquals(new double[] {0, 0, 0.5}, new BulkIntegrator(grid).integrate(), 1e-12);
+    }
+
+    @Test
+    void testInvalidRequestsRejected() {
+        BulkIntegrationRequest both = request("x", IntegrationMethod.TRAPEZOIDAL, 10);
+        both.setGrid(new double[] {0, 1});
+        both.setLowerBounds(new double[] {0});
+        both.setUpperBounds(new double[] {1});
+        assertThrows(IllegalArgumentException.class, () -> new BulkIntegrator(both).integrate());
+
+        BulkIntegrationRequest unsorted = request("x", IntegrationMethod.TRAPEZOIDAL, 10);
+        unsorted.setGrid(new double[] {1, 0});
+        assertThrows(IllegalArgumentException.class, () -> new BulkIntegrator(unsorted).integrate());
+
+        BulkIntegrationRequest unpaired = request("x", IntegrationMethod.TRAPEZOIDAL, 10);
+        unpaired.setLowerBounds(new double[] {0, 1});
+        unpaired.setUpperBounds(new double[] {1});
+        assertThrows(IllegalArgumentException.class, () -> new BulkIntegrator(unpaired).integrate());
+
+        BulkIntegrationRequest romberg = request("x", IntegrationMethod.ROMBERG, 10);
+        romberg.setGrid(new double[] {0, 1});
+        assertThrows(IllegalArgumentException.class, () -> new BulkIntegrator(romberg).integrate());
+    }
+}
@@ -0,0 +1,42 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.DoubleSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// The composite rules must not allocate per evaluated point: a million
+// intervals may allocate no more than a small, size-independent overhead
+// (the integrator, lambdas and one partial sum per 8192-point chunk).
+class CompositeRuleAllocationTest {
+
+    private static final long MAX_BYTES_PER_CALL = 32 * 1024;
+    private static final String FUNCTION = "(x^2 + 1)/(x^2 - 25) + sin(x)";
+
+    private static long allocatedBytes(DoubleSupplier integration) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < 5; i++) {
+            integration.getAsDouble(); // warm up caches and thread-local buffers
+        }
+        long before = threads.getThreadAllocatedBytes(thread);
+        integration.getAsDouble();
+        return threads.getThreadAllocatedBytes(thread) - before;
+    }
+
+    @Test
+    void testNoPerPointAllocation() {
+        IntegrationRequest trapezoid = TestRequests.of(FUNCTION, 0, 2, IntegrationMethod.TRAPEZOIDAL, 1_000_000);
+        IntegrationRequest simpson = TestRequests.of(FUNCTION, 0, 2, IntegrationMethod.SIMPSON, 1_000_000);
+        IntegrationRequest midpoint = TestRequests.of(FUNCTION, 0, 2, IntegrationMethod.MIDPOINT, 1_000_000);
+
+        assertTrue(allocatedBytes(() -> new TrapezoidalIntegrator(trapezoid).integrate()) < MAX_BYTES_PER_CALL);
+        assertTrue(allocatedBytes(() -> new SimpsonIntegrator(simpson).integrate()) < MAX_BYTES_PER_CALL);
+        assertTrue(allocatedBytes(() -> new MidpointIntegrator(midpoint).integrate()) < MAX_BYTES_PER_CALL);
+    }
+}
@@ -0,0 +1,35 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompositeSumTest {
+
+    // Runs the integrators directly: NumericalIntegrator would answer the
+    // parallel request from the result cache
+    private static double integrate(IntegrationRequest request) {
+        switch (request.getIntegrationMethod()) {
+            case SIMPSON:
+                return new SimpsonIntegrator(request).integrate();
+            case MIDPOINT:
+                return new MidpointIntegrator(request).integrate();
+            default:
+                return new TrapezoidalIntegrator(request).integrate();
+        }
+    }
+
+    @Test
+    void testParallelMatchesSequential() {
+        for (IntegrationMethod method : new IntegrationMethod[] {
+                IntegrationMethod.TRAPEZOIDAL, IntegrationMethod.SIMPSON, IntegrationMethod.MIDPOINT}) {
+            IntegrationRequest request = TestRequests.of("sin(x)*exp(-x/3)", 0, 10, method, 200_000);
+            double sequential = integrate(request);
+            request.setParallel(true);
+            assertEquals(sequential, integrate(request), 0.0,
+                    method + " should be reproducible across thread counts");
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.CubatureMethod;
+import com.wistrum.integrationapi.model.MultipleIntegrationRequest;
+import org.junit.jupiter.api.Test;
+import org.mariuszgromada.math.mxparser.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CubatureIntegratorTest {
+
+    private static MultipleIntegrationRequest request(String function, double[] lower, double[] upper,
+            CubatureMethod method) {
+        MultipleIntegrationRequest request = new MultipleIntegrationRequest();
+        request.setFunction(function);
+        request.setLowerBounds(lower);
+        request.setUpperBounds(upper);
+        request.setAngularMeasure(AngularMeasure.RADIANS);
+        request.setMethod(method);
+        return request;
+    }
+
+    @Test
+    void testTensorRuleIsExactForPolynomials() {
+        MultipleIntegrationRequest request = request("x*y^2 + 3", new double[] {0, 0}, new double[] {1, 2},
+                CubatureMethod.TENSOR_GAUSS_LEGENDRE);
+        request.setIntervals(2);
+        CubatureIntegrator cubature = new CubatureIntegrator(request);
+        assertEquals(4.0 / 3 + 6, cubature.integrate(), 1e-12);
+        assertEquals(4, cubature.getEvaluations());
+    }
+
+    @Test
+    void testSparseGridNeedsFewerPointsForWeaklyCoupledIntegrands() {
+        String function = "exp(x) + cos(y) + y*z^2";
+        double[] lower = {0, 0, 0};
+        double[] upper = {1, 1, 1};
+        double expected = Math.E - 1 + Math.sin(1) + 1.0 / 6;
+
+        MultipleIntegrationRequest tensorRequest = request(function, lower, upper,
+                CubatureMethod.TENSOR_GAUSS_LEGENDRE);
+        tensorRequest.setIntervals(6);
+        CubatureIntegrator tensor = new CubatureIntegrator(tensorRequest);
+        assertEquals(expected, tensor.integrate(), 1e-12);
+
+        MultipleIntegrationRequest sparseRequest = request(function, lower, upper, CubatureMethod.SPARSE_GRID);
+        sparseRequest.setLevel(2);
+        CubatureIntegrator sparse = new CubatureIntegrator(sparseRequest);
+        assertEquals(expected, sparse.integrate(), 1e-12);
+        assertTrue(sparse.getEvaluations() < tensor.getEvaluations(),
+                sparse.getEvaluations() + " vs " + tensor.getEvaluations());
+    }
+
+    @Test
+    void testSparseGridConvergesForCoupledIntegrands() {
+        MultipleIntegrationRequest request = request("exp(x + y + z)", new double[] {0, 0, 0},
+                new double[] {1, 1, 1}, CubatureMethod.SPARSE_GRID);
+        request.setLevel(5);
+        assertEquals(Math.pow(Math.E - 1, 3), new CubatureIntegrator(request).integrate(), 1e-12);
+    }
+
+    @Test
+    void testParallelMatchesSequentialExactly() {
+        MultipleIntegrationRequest request = request("sin(x*y) + z", new double[] {0, -1, 2},
+                new double[] {3, 1, 4}, CubatureMethod.TENSOR_GAUSS_LEGENDRE);
+        request.setIntervals(60);
+        double sequential = new CubatureIntegrator(request).integrate();
+        request.setParallel(true);
+        assertEquals(sequential, new CubatureIntegrator(request).integrate(), 0.0);
+    }
+
+    @Test
+    void testMonteCarloIsReproducibleAndReportsStandardError() {
+        // |x - y| has a kink along the diagonal, which the Gauss grids handle poorly
+        for (CubatureMethod method : new CubatureMethod[] {CubatureMethod.MONTE_CARLO,
+                CubatureMethod.QUASI_MONTE_CARLO}) {
+            MultipleIntegrationRequest request = request("abs(x - y) + z", new double[] {0, 0, 0},
+                    new double[] {1, 1, 2}, method);
+            request.setIntervals(200_000);
+            request.setSeed(7L);
+            CubatureIntegrator sequential = new CubatureIntegrator(request);
+            double result = sequential.integrate();
+            request.setParallel(true);
+            assertEquals(result, new CubatureIntegrator(request).integrate(), 0.0, method.name());
+
+            assertEquals(2.0 / 3 + 2, result, 5 * sequential.getErrorEstimate(), method.name());
+            assertEquals(200_000, sequential.getEvaluations());
+        }
+    }
+
+    @Test
+    void testAngularMeasureAppliesToEveryAxis() {
+        MultipleIntegrationRequest request = request("sin(x)*sin(y)", new double[] {0, 0},
+                new double[] {180, 180}, CubatureMethod.SPARSE_GRID);
+        request.setAngularMeasure(AngularMeasure.DEGREES);
+        request.setLevel(8);
+        assertEquals(4.0, new CubatureIntegrator(request).integrate(), 1e-9);
+    }
+
+    @Test
+    void testInvalidRequestsRejected() {
+        MultipleIntegrationRequest oneAxis = request("x", new double[] {0}, new double[] {1},
+                CubatureMethod.TENSOR_GAUSS_LEGENDRE);
+        oneAxis.setIntervals(4);
+        assertThrows(IllegalArgumentException.class, () -> new CubatureIntegrator(oneAxis).integrate());
+
+        MultipleIntegrationRequest zInTwoDimensions = request("x*z", new double[] {0, 0}, new double[] {1, 1},
+                CubatureMethod.TENSOR_GAUSS_LEGENDRE);
+        zInTwoDimensions.setIntervals(4);
+        assertThrows(IllegalArgumentException.class, () -> new CubatureIntegrator(zInTwoDimensions).integrate());
+
+        MultipleIntegrationRequest tooManyPoints = request("x*y*z", new double[] {0, 0, 0},
+                new double[] {1, 1, 1}, CubatureMethod.TENSOR_GAUSS_LEGENDRE);
+        tooManyPoints.setIntervals(1_000);
+        assertThrows(IllegalArgumentException.class, () -> new CubatureIntegrator(tooManyPoints).integrate());
+
+        MultipleIntegrationRequest oneSample = request("x*y", new double[] {0, 0}, new double[] {1, 1},
+                CubatureMethod.MONTE_CARLO);
+        oneSample.setIntervals(1);
+        assertThrows(IllegalArgumentException.class, () -> new CubatureIntegrator(oneSample).integrate());
+
+        MultipleIntegrationRequest emptyAxis = request("x*y", new double[] {0, 1}, new double[] {1, 1},
+                CubatureMethod.SPARSE_GRID);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new CubatureIntegrator(emptyAxis).integrate());
+        assertEquals("Lower bound must be less than upper bound", e.getMessage());
+    }
+
+    @Test
+    void testMissingAngularMeasureIsRejected() {
+        MultipleIntegrationRequest request = request("x*y", new double[] {0, 0}, new double[] {1, 1},
+                CubatureMethod.SPARSE_GRID);
+        request.setAngularMeasure(null);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> new CubatureIntegrator(request).integrate());
+        assertEquals("Angular measure is required.", e.getMessage());
+    }
+
+    @Test
+    void testMultivariateCompiledMatchesMxparser() {
+        String expression = "x*y^2 - sin(z)/(1 + x^2) + exp(-y)";
+        MultivariateFunction compiled = ExpressionCompiler.compile(expression, 3);
+        assertTrue(ExpressionCompiler.isCompiled(compiled));
+        Function reference = new Function("f(x,y,z) = " + expression);
+
+        double[] x = new double[50];
+        double[] values = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = -2 + 0.09 * i;
+        }
+        compiled.evaluate(x, 0.7, -1.3, values, x.length);
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(reference.calculate(x[i], 0.7, -1.3), values[i], 1e-12);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.wistrum.integrationapi.util;
+
+import org.junit.jupiter.api.Test;
+import org.mariuszgromada.math.mxparser.Function;
+
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpressionCompilerTest {
+
+    private static final String[] ELEMENTARY = {
+        "x^2", "2x^2 + 3x - 1", "-x^2", "-2^2", "2^3^2", "x^-2", "2(x+1)", "x(2)",
+        "sin(x)cos(x)", "exp(-x^2)", "ln(x)", "log(2, x)", "sqrt(abs(x))", "e^x + pi",
+        "(2(x^2) + 3)/((x^2)-40000)", "tan(x) + sec(x)", "(-8)^(1/3)", "1.5e-3*x"
+    };
+
+    @Test
+    void testElementaryFunctionsTakeCompiledPath() {
+        for (String expression : ELEMENTARY) {
+            assertTrue(ExpressionCompiler.isCompiled(ExpressionCompiler.compile(expression)),
+                    "Expected compiled evaluation for " + expression);
+        }
+    }
+
+    @Test
+    void testCompiledMatchesMxparser() {
+        for (String expression : ELEMENTARY) {
+            DoubleUnaryOperator compiled = ExpressionCompiler.compile(expression);
+            Function reference = new Function("f(x) = " + expression);
+            for (double x = 0.05; x < 5; x += 0.37) {
+                double expected = reference.calculate(x);
+                double actual = compiled.applyAsDouble(x);
+                if (Double.isFinite(expected)) {
+                    assertEquals(expected, actual, 1e-9 * Math.max(1, Math.abs(expected)),
+                            expression + " at x = " + x);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testBatchEvaluationMatchesPointwise() {
+        double[] x = new double[1_000];
+        double[] values = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = -3 + 0.0071 * i;
+        }
+        for (String expression : ELEMENTARY) {
+            assertBatchMatches(ExpressionCompiler.compile(expression), x, values, expression);
+        }
+        assertBatchMatches(ExpressionCompiler.compile("x + 3!"), x, values, "x + 3!");
+    }
+
+    private static void assertBatchMatches(BatchFunction f, double[] x, double[] values, String expression) {
+        f.evaluate(x, values, x.length);
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(f.applyAsDouble(x[i]), values[i], 0.0, expression + " at x = " + x[i]);
+        }
+    }
+
+    @Test
+    void testUnsupportedSyntaxFallsBackToMxparser() {
+        DoubleUnaryOperator factorial = ExpressionCompiler.compile("x + 3!");
+        assertFalse(ExpressionCompiler.isCompiled(factorial));
+        assertEquals(7.0, factorial.applyAsDouble(1.0), 1e-12);
+    }
+
+    @Test
+    void testInvalidSyntaxRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionCompiler.compile("invalid_function("));
+    }
+}
@@ -0,0 +1,22 @@
+package com.wistrum.integrationapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FunctionCacheTest {
+
+    @Test
+    void testNormalizationKeepsSeparatingWhitespace() {
+        assertEquals("x+1", FunctionCache.normalize("  x +   1 "));
+        assertEquals("2 x", FunctionCache.normalize("2   x"));
+        assertEquals("sin(x)/(x^2-4)", FunctionCache.normalize("sin( x ) / ( x^2 - 4 )"));
+    }
+
+    @Test
+    void testEquivalentExpressionsShareCompiledFunction() {
+        long hitsBefore = FunctionCache.stats().hitCount();
+        assertSame(FunctionCache.get("x^3 + 2x"), FunctionCache.get(" x^3+2x "));
+        assertTrue(FunctionCache.stats().hitCount() > hitsBefore);
+    }
+}
@@ -63,4 +63,25 @@ class GaussLegendreQuadratureTest {
         double result = numericalIntegrator.integrate(request);
         assertEquals(10.0, result, 1e-5, "Integration of constant function 5 from 0 to 1 should be 5");
     }
+
+    @Test
+    void testGaussLegendreIsExactForPolynomials() throws Exception {
+        request.setFunction("x^5 - 3x^2 + 1");
+        request.setMethod(IntegrationMethod.GAUSS_LEGENDRE_QUADRATURE);
+        request.setIntervals(3);
+        double result = numericalIntegrator.integrate(request);
+        assertEquals(64.0 / 6 - 8 + 2, result, 1e-12, "A 3-point rule integrates degree-5 polynomials exactly");
+    }
+
+    @Test
+    void testGaussLegendreRuleIsSymmetricAndNormalized() {
+        QuadratureRule rule = GaussLegendreQuadrature.rule(101);
+        double weightSum = 0.0;
+        for (int i = 0; i < rule.size(); i++) {
+            assertEquals(-rule.node(rule.size() - 1 - i), rule.node(i), 1e-15);
+            weightSum += rule.weight(i);
+        }
+        assertEquals(2.0, weightSum, 1e-13);
+        assertSame(rule, GaussLegendreQuadrature.rule(101), "Rules should be cached per order");
+    }
 }
@@ -0,0 +1,89 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InfiniteIntervalTest {
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    @Test
+    void testDoubleExponentialOnInfiniteAndFiniteIntervals() throws Exception {
+        NumericalIntegrator integrator = new NumericalIntegrator();
+        Object[][] cases = {
+            {"1/(1+x^2)", 0.0, INF, Math.PI / 2},
+            {"exp(-x^2)", -INF, INF, Math.sqrt(Math.PI)},
+            {"exp(x)", -INF, 0.0, 1.0},
+            {"x*exp(-x)", 2.0, INF, 3 * Math.exp(-2)},
+            {"sqrt(x)", 0.0, 1.0, 2.0 / 3},
+        };
+        for (Object[] c : cases) {
+            IntegrationResult result = integrator.integrateDetailed(TestRequests.of((String) c[0], (double) c[1],
+                    (double) c[2], IntegrationMethod.DOUBLE_EXPONENTIAL, 0));
+            double expected = (double) c[3];
+            assertEquals(expected, result.getResult(), 1e-10 * expected, (String) c[0]);
+            assertTrue(result.getEvaluations() < 1_000, c[0] + ": " + result.getEvaluations());
+        }
+    }
+
+    @Test
+    void testDoubleExponentialToleranceMustBeFinite() {
+        for (double tolerance : new double[] {Double.NaN, INF}) {
+            IntegrationRequest request = TestRequests.of("exp(-x^2)", -INF, INF,
+                    IntegrationMethod.DOUBLE_EXPONENTIAL, 0);
+            request.setAbsoluteTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new DoubleExponentialQuadrature(request).integrate(),
+                    "absolute " + tolerance);
+            request.setAbsoluteTolerance(null);
+            request.setRelativeTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new DoubleExponentialQuadrature(request).integrate(),
+                    "relative " + tolerance);
+        }
+    }
+
+    @Test
+    void testGaussLaguerreOnHalfLines() throws Exception {
+        NumericalIntegrator integrator = new NumericalIntegrator();
+        assertEquals(120.0, integrator.integrate(TestRequests.of("x^5*exp(-x)", 0, INF,
+                IntegrationMethod.GAUSS_LAGUERRE_QUADRATURE, 10)), 1e-9);
+        assertEquals(Math.exp(1), integrator.integrate(TestRequests.of("exp(x)", -INF, 1,
+                IntegrationMethod.GAUSS_LAGUERRE_QUADRATURE, 5)), 1e-12);
+    }
+
+    @Test
+    void testGaussHermiteOnTheRealLine() throws Exception {
+        assertEquals(Math.sqrt(Math.PI) / 2, new NumericalIntegrator().integrate(
+                TestRequests.of("x^2*exp(-x^2)", -INF, INF, IntegrationMethod.GAUSS_HERMITE_QUADRATURE, 10)), 1e-12);
+    }
+
+    @Test
+    void testLargestTablesStayAccurate() {
+        for (int n : new int[] {1, 2, 7, 64, GaussLaguerreQuadrature.MAX_NODES}) {
+            QuadratureRule rule = GaussLaguerreQuadrature.rule(n);
+            double mass = 0.0;
+            for (int i = 0; i < n; i++) {
+                if (i > 0) assertTrue(rule.node(i) > rule.node(i - 1), "Laguerre n = " + n);
+                mass += rule.weight(i) * Math.exp(-rule.node(i));
+            }
+            assertEquals(1.0, mass, 1e-12, "Laguerre n = " + n);
+        }
+        for (int n : new int[] {1, 2, 7, 64, GaussHermiteQuadrature.MAX_NODES - 1, GaussHermiteQuadrature.MAX_NODES}) {
+            QuadratureRule rule = GaussHermiteQuadrature.rule(n);
+            double mass = 0.0;
+            for (int i = 0; i < n; i++) {
+                if (i > 0) assertTrue(rule.node(i) > rule.node(i - 1), "Hermite n = " + n);
+                mass += rule.weight(i) * Math.exp(-rule.node(i) * rule.node(i));
+            }
+            assertEquals(Math.sqrt(Math.PI), mass, 1e-12, "Hermite n = " + n);
+        }
+    }
+
+    @Test
+    void testFiniteGridMethodsRejectInfiniteBounds() {
+        IntegrationRequest request = TestRequests.of("exp(-x)", 0, INF, IntegrationMethod.TRAPEZOIDAL, 1_000);
+        assertThrows(IllegalArgumentException.class, () -> new NumericalIntegrator().integrate(request));
+    }
+}
@@ -0,0 +1,62 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegrationMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        Metrics.addRegistry(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Metrics.removeRegistry(registry);
+    }
+
+    @Test
+    void testRequestRecordsOutcomeTimingAndEvaluations() throws Exception {
+        IntegrationRequest request = new IntegrationRequest();
+        request.setFunction("x^2 + 3");
+        request.setLowerBound(0);
+        request.setUpperBound(1);
+        request.setAngularMeasure(AngularMeasure.RADIANS);
+        request.setMethod(IntegrationMethod.MIDPOINT);
+        request.setIntervals(500);
+
+        new NumericalIntegrator().integrate(request);
+
+        assertEquals(1, registry.get("integration.requests")
+                .tags("method", "MIDPOINT", "outcome", "success").timer().count());
+        assertEquals(1, registry.get("integration.evaluation").tag("method", "MIDPOINT").timer().count());
+        assertEquals(500, registry.get("integration.function.evaluations")
+                .tag("method", "MIDPOINT").counter().count());
+        assertNotNull(registry.find("cache.gets").tag("cache", "expressions").functionCounter());
+    }
+
+    @Test
+    void testInvalidRequestIsCountedByOutcome() {
+        IntegrationRequest request = new IntegrationRequest();
+        request.setFunction("x^2");
+        request.setLowerBound(0);
+        request.setUpperBound(1);
+        request.setAngularMeasure(AngularMeasure.RADIANS);
+        request.setMethod(IntegrationMethod.TRAPEZOIDAL);
+        request.setIntervals(0);
+
+        assertThrows(IllegalArgumentException.class, () -> new NumericalIntegrator().integrate(request));
+        assertEquals(1, registry.get("integration.requests")
+                .tags("method", "TRAPEZOIDAL", "outcome", "invalid").timer().count());
+    }
+}
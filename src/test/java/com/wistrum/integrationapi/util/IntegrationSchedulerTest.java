@@ -0,0 +1,84 @@
+package com.wistrum.integrationapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntegrationSchedulerTest {
+
+    @Test
+    void testRejectsWhenPoolAndQueueAreFull() throws Exception {
+        IntegrationScheduler scheduler = new IntegrationScheduler(1, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> running = scheduler.submit(() -> release.await(5, TimeUnit.SECONDS));
+            assertThrows(RejectedExecutionException.class, () -> scheduler.submit(() -> 1));
+            release.countDown();
+            running.get(5, TimeUnit.SECONDS);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testCancelledWorkStopsAndFreesTheWorker() throws Exception {
+        IntegrationScheduler scheduler = new IntegrationScheduler(1, 0);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            Future<?> spinning = scheduler.submit(() -> {
+                started.countDown();
+                while (true) {
+                    Cancellation.check();
+                }
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            spinning.cancel(true);
+            assertThrows(CancellationException.class, spinning::get);
+
+            // The single worker must become available again
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (scheduler.getActiveCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(42, scheduler.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachRunsEveryIndexOnce() {
+        IntegrationScheduler scheduler = new IntegrationScheduler(2, 0);
+        try {
+            AtomicIntegerArray runs = new AtomicIntegerArray(100);
+            scheduler.forEach(100, runs::incrementAndGet);
+            for (int i = 0; i < runs.length(); i++) {
+                assertEquals(1, runs.get(i));
+            }
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testForEachOnlyBorrowsIdleWorkers() throws Exception {
+        IntegrationScheduler scheduler = new IntegrationScheduler(1, 0);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // With every worker busy the caller does all the work itself
+            scheduler.submit(() -> release.await(5, TimeUnit.SECONDS));
+            Thread caller = Thread.currentThread();
+            scheduler.forEach(10, i -> assertSame(caller, Thread.currentThread()));
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LobattoQuadratureTest {
+
+    @Test
+    void testLobattoIsExactForPolynomials() throws Exception {
+        IntegrationRequest request = TestRequests.of("x^5 - 3x^2 + 1", 0, 2, IntegrationMethod.LOBATTO_QUADRATURE, 4);
+        double result = new NumericalIntegrator().integrate(request);
+        assertEquals(64.0 / 6 - 8 + 2, result, 1e-12, "A 4-point Lobatto rule integrates degree-5 polynomials exactly");
+
+        QuadratureRule rule = LobattoQuadrature.rule(5);
+        assertEquals(-1.0, rule.node(0));
+        assertEquals(-Math.sqrt(3.0 / 7), rule.node(1), 1e-15);
+        assertEquals(49.0 / 90, rule.weight(1), 1e-15);
+        assertEquals(32.0 / 45, rule.weight(2), 1e-15);
+    }
+}
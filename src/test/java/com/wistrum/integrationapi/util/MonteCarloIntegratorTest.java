@@ -0,0 +1,30 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MonteCarloIntegratorTest {
+
+    @Test
+    void testMonteCarloIsReproducibleAndReportsStandardError() {
+        // The integrator is run directly: NumericalIntegrator would answer the
+        // parallel request from the result cache
+        for (IntegrationMethod method : new IntegrationMethod[] {
+                IntegrationMethod.MONTE_CARLO, IntegrationMethod.QUASI_MONTE_CARLO}) {
+            boolean quasi = method == IntegrationMethod.QUASI_MONTE_CARLO;
+            IntegrationRequest request = TestRequests.of("cos(x)", 0, 2, method, 100_000);
+            request.setSeed(42L);
+            MonteCarloIntegrator sequential = new MonteCarloIntegrator(request, quasi);
+            double result = sequential.integrate();
+            request.setParallel(true);
+            double parallel = new MonteCarloIntegrator(request, quasi).integrate();
+
+            assertEquals(result, parallel, 0.0, method.name());
+            assertEquals(Math.sin(2), result, 5 * sequential.getErrorEstimate(), method.name());
+            assertEquals(100_000L, sequential.getEvaluations());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationProgress;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressiveIntegrationTest {
+
+    @Test
+    void testDoublingLevelsConvergeToTheRequestedResolution() throws Exception {
+        NumericalIntegrator integrator = new NumericalIntegrator();
+        List<IntegrationProgress> estimates = new CopyOnWriteArrayList<>();
+        IntegrationRequest request = TestRequests.of("exp(x)", 0, 1, IntegrationMethod.SIMPSON, 1_000);
+        IntegrationResult result = integrator.integrateProgressively(request, estimates::add)
+                .get(5, TimeUnit.SECONDS);
+
+        assertTrue(estimates.size() > 1);
+        assertNull(estimates.get(0).getErrorEstimate());
+        for (int i = 1; i < estimates.size(); i++) {
+            assertEquals(i, estimates.get(i).getLevel());
+            assertTrue(estimates.get(i).getEvaluations() > estimates.get(i - 1).getEvaluations());
+        }
+        assertEquals(integrator.integrate(request), result.getResult(), 0.0);
+        assertEquals(Math.E - 1, result.getResult(), 1e-12);
+    }
+
+    @Test
+    void testRombergReportsEveryLevel() throws Exception {
+        List<IntegrationProgress> estimates = new CopyOnWriteArrayList<>();
+        IntegrationResult result = new NumericalIntegrator()
+                .integrateProgressively(TestRequests.of("exp(x)", 0, 1, IntegrationMethod.ROMBERG, 1 << 16),
+                        estimates::add)
+                .get(5, TimeUnit.SECONDS);
+
+        IntegrationProgress last = estimates.get(estimates.size() - 1);
+        assertEquals(1, estimates.get(0).getLevel());
+        assertEquals(result.getResult(), last.getResult(), 0.0);
+        assertEquals(result.getEvaluations(), last.getEvaluations());
+        assertEquals(Math.E - 1, result.getResult(), 1e-10);
+    }
+
+    @Test
+    void testInvalidRequestFailsTheFuture() {
+        IntegrationRequest request = TestRequests.of("exp(x)", 0, 1, IntegrationMethod.SIMPSON, 1_001);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> new NumericalIntegrator()
+                .integrateProgressively(request, progress -> fail("No estimate expected"))
+                .get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalArgumentException);
+    }
+
+    @Test
+    void testCancellingStopsTheRefinement() throws Exception {
+        IntegrationScheduler scheduler = new IntegrationScheduler(1, 0);
+        CountDownLatch firstEstimate = new CountDownLatch(1);
+        try {
+            IntegrationRequest request = TestRequests.of("exp(x)", 0, 1, IntegrationMethod.ADAPTIVE_QUADRATURE, 1);
+            request.setAbsoluteTolerance(1e-300);
+            request.setRelativeTolerance(0.0);
+            request.setMaxEvaluations(10_000_000);
+            Future<IntegrationResult> integration = new NumericalIntegrator(scheduler)
+                    .integrateProgressively(request, progress -> firstEstimate.countDown());
+            assertTrue(firstEstimate.await(5, TimeUnit.SECONDS));
+            integration.cancel(true);
+            assertThrows(CancellationException.class, integration::get);
+
+            // The single worker must become available again
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (scheduler.getActiveCount() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, scheduler.getActiveCount());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testFinishedFlightsCancelTheirDeadline() throws Exception {
+        int before = NumericalIntegrator.pendingDeadlines();
+        new NumericalIntegrator()
+                .integrateProgressively(TestRequests.of("exp(x)", 0, 1, IntegrationMethod.SIMPSON, 1_000), e -> { })
+                .get(5, TimeUnit.SECONDS);
+        // The timer is cancelled by a completion callback, which may still be running
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (NumericalIntegrator.pendingDeadlines() > before && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(before, NumericalIntegrator.pendingDeadlines());
+    }
+}
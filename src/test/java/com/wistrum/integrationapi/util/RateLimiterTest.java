@@ -0,0 +1,65 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    @Test
+    void testClientsHaveSeparateAllowances() {
+        RateLimiter limiter = new RateLimiter(10, Duration.ofMinutes(1), 100, Duration.ofMinutes(10), Map.of());
+        assertTrue(limiter.tryConsume(null, "10.0.0.1", 7));
+        assertFalse(limiter.tryConsume(null, "10.0.0.1", 4));
+        assertTrue(limiter.tryConsume(null, "10.0.0.1", 3));
+        assertFalse(limiter.tryConsume(null, "10.0.0.1", 1));
+        assertTrue(limiter.tryConsume(null, "10.0.0.2", 10));
+    }
+
+    @Test
+    void testApiKeysHaveTheirOwnCapacity() {
+        RateLimiter limiter = new RateLimiter(10, Duration.ofMinutes(1), 100, Duration.ofMinutes(10),
+                Map.of("research", 1_000L));
+        assertEquals(1_000, limiter.capacity("research"));
+        assertEquals(10, limiter.capacity("unknown-key"));
+        assertEquals(10, limiter.capacity(null));
+
+        // The key's bucket is shared across addresses; unknown keys fall back to the address
+        assertTrue(limiter.tryConsume("research", "10.0.0.1", 600));
+        assertFalse(limiter.tryConsume("research", "10.0.0.2", 600));
+        assertTrue(limiter.tryConsume("unknown-key", "10.0.0.1", 10));
+        assertFalse(limiter.tryConsume(null, "10.0.0.1", 1));
+    }
+
+    @Test
+    void testStoreIsBounded() {
+        RateLimiter limiter = new RateLimiter(10, Duration.ofMinutes(1), 1_000, Duration.ofMinutes(10), Map.of());
+        for (int i = 0; i < 50_000; i++) {
+            limiter.tryConsume(null, "192.0.2." + i, 1);
+        }
+        assertTrue(limiter.trackedClients() <= 1_000, "tracked " + limiter.trackedClients());
+    }
+
+    @Test
+    void testEveryCallPaysTheMinimumCharge() {
+        IntegrationRequest cheap = TestRequests.of("x", 0, 1, IntegrationMethod.TRAPEZOIDAL, 10);
+        assertEquals(IntegrationCost.MIN_TOKENS_PER_CALL, IntegrationCost.tokens(cheap));
+        IntegrationRequest large = TestRequests.of("x", 0, 1, IntegrationMethod.TRAPEZOIDAL, 2_000_000);
+        assertEquals(21, IntegrationCost.tokens(large));
+        assertEquals(IntegrationCost.MIN_TOKENS_PER_CALL, IntegrationCost.tokens(List.of(cheap, cheap)));
+    }
+
+    @Test
+    void testInvalidLimitsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new RateLimiter(0, Duration.ofMinutes(1), 100, Duration.ofMinutes(10), Map.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RateLimiter(10, Duration.ofMinutes(1), 100, Duration.ofMinutes(10), Map.of("key", 0L)));
+    }
+}
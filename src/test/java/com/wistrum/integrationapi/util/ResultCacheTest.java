@@ -0,0 +1,87 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    @Test
+    void testEquivalentRequestsShareKey() {
+        IntegrationRequest inDegrees = TestRequests.of("sin(x) + 1", 0, 180, IntegrationMethod.SIMPSON, 1_000);
+        inDegrees.setAngularMeasure(AngularMeasure.DEGREES);
+        ResultCache.Key degrees = ResultCache.key(inDegrees);
+        ResultCache.Key radians = ResultCache.key(
+                TestRequests.of(" sin( x )+1 ", 0, Math.PI, IntegrationMethod.SIMPSON, 1_000));
+        assertEquals(degrees, radians);
+        assertEquals(degrees.hashCode(), radians.hashCode());
+        assertNotEquals(degrees,
+                ResultCache.key(TestRequests.of("sin(x) + 1", 0, 3, IntegrationMethod.SIMPSON, 1_000)));
+    }
+
+    @Test
+    void testIntervalsAreIgnoredByMethodsThatChooseTheirOwnPoints() {
+        for (IntegrationMethod method : new IntegrationMethod[] {IntegrationMethod.AUTO,
+                IntegrationMethod.DOUBLE_EXPONENTIAL}) {
+            assertEquals(ResultCache.key(TestRequests.of("exp(x)", 0, 1, method, 0)),
+                    ResultCache.key(TestRequests.of("exp(x)", 0, 1, method, 500)), method.name());
+        }
+        assertNotEquals(ResultCache.key(TestRequests.of("exp(x)", 0, 1, IntegrationMethod.SIMPSON, 100)),
+                ResultCache.key(TestRequests.of("exp(x)", 0, 1, IntegrationMethod.SIMPSON, 500)));
+    }
+
+    @Test
+    void testTimeBudgetedRequestsAreNotCached() {
+        IntegrationRequest request = TestRequests.of("x", 0, 1, IntegrationMethod.SIMPSON, 1_000);
+        request.setTimeBudgetMs(100L);
+        assertNull(ResultCache.key(request));
+    }
+
+    @Test
+    void testConcurrentIdenticalRequestsComputeOnce() throws Exception {
+        NumericalIntegrator integrator = new NumericalIntegrator();
+        long missesBefore = ResultCache.stats().missCount();
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callerPool = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Double>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(callerPool.submit(() -> {
+                    start.await();
+                    IntegrationRequest request = TestRequests.of("x^3 + 11", 0, 2,
+                            IntegrationMethod.TRAPEZOIDAL, 1_000_000);
+                    return integrator.integrate(request);
+                }));
+            }
+            start.countDown();
+            for (Future<Double> result : results) {
+                assertEquals(26.0, result.get(), 1e-9);
+            }
+        } finally {
+            callerPool.shutdownNow();
+        }
+        assertEquals(1, ResultCache.stats().missCount() - missesBefore);
+    }
+
+    @Test
+    void testFailedRequestsAreDroppedAndRetried() {
+        NumericalIntegrator integrator = new NumericalIntegrator();
+        long missesBefore = ResultCache.stats().missCount();
+        for (int i = 0; i < 2; i++) {
+            IntegrationRequest request = TestRequests.of("1/(x - 0.5)", 0, 1, IntegrationMethod.SIMPSON, 1_000);
+            assertThrows(ArithmeticException.class, () -> integrator.integrate(request));
+        }
+        assertEquals(2, ResultCache.stats().missCount() - missesBefore);
+    }
+}
@@ -0,0 +1,35 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+import com.wistrum.integrationapi.model.IntegrationResult;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RombergIntegratorTest {
+
+    @Test
+    void testRombergStopsEarlyAtTolerance() throws Exception {
+        IntegrationRequest request = TestRequests.of("exp(x)", 0, 2, IntegrationMethod.ROMBERG, 1_000_000);
+        request.setAbsoluteTolerance(1e-12);
+        request.setRelativeTolerance(0.0);
+        IntegrationResult result = new NumericalIntegrator().integrateDetailed(request);
+        assertEquals(Math.exp(2) - 1, result.getResult(), 1e-11);
+        assertTrue(result.getEvaluations() <= 257, "Smooth integrands should converge within a few levels");
+    }
+
+    @Test
+    void testToleranceMustBeFinite() {
+        for (double tolerance : new double[] {Double.NaN, Double.POSITIVE_INFINITY}) {
+            IntegrationRequest request = TestRequests.of("exp(x)", 0, 2, IntegrationMethod.ROMBERG, 1_000);
+            request.setAbsoluteTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new RombergIntegrator(request).integrate(),
+                    "absolute " + tolerance);
+            request.setAbsoluteTolerance(null);
+            request.setRelativeTolerance(tolerance);
+            assertThrows(IllegalArgumentException.class, () -> new RombergIntegrator(request).integrate(),
+                    "relative " + tolerance);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.wistrum.integrationapi.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingularityAnalyzerTest {
+
+    @Test
+    void testRootsAreCachedPerExpression() {
+        String expression = "(2(x^2) + 3)/((x^2)-40000)";
+        assertEquals(200.0, SingularityAnalyzer.findSingularity(expression, 0, 500).getAsDouble(), 1e-12);
+
+        long hitsBefore = SingularityAnalyzer.stats().hitCount();
+        assertFalse(SingularityAnalyzer.findSingularity(expression, -100, 100).isPresent());
+        assertEquals(-200.0, SingularityAnalyzer.findSingularity(expression, -300, 0).getAsDouble(), 1e-12);
+        assertEquals(hitsBefore + 2, SingularityAnalyzer.stats().hitCount());
+    }
+
+    @Test
+    void testComplexRootsAreIgnored() {
+        assertFalse(SingularityAnalyzer.findSingularity("1/(x^2+1)", -1, 1).isPresent());
+    }
+}
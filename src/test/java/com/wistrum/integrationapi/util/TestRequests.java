@@ -0,0 +1,24 @@
+package com.wistrum.integrationapi.util;
+
+import com.wistrum.integrationapi.model.AngularMeasure;
+import com.wistrum.integrationapi.model.IntegrationMethod;
+import com.wistrum.integrationapi.model.IntegrationRequest;
+
+// Request fixtures shared by the integrator tests, with bounds in radians
+final class TestRequests {
+
+    private TestRequests() {
+    }
+
+    static IntegrationRequest of(String function, double lowerBound, double upperBound,
+            IntegrationMethod method, int intervals) {
+        IntegrationRequest request = new IntegrationRequest();
+        request.setFunction(function);
+        request.setLowerBound(lowerBound);
+        request.setUpperBound(upperBound);
+        request.setAngularMeasure(AngularMeasure.RADIANS);
+        request.setMethod(method);
+        request.setIntervals(intervals);
+        return request;
+    }
+}